@@ -0,0 +1,40 @@
+package com.nhancv.webrtcpeer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixtures
+ * <p>
+ * Description: Loads benchmark fixtures from src/jmh/resources.
+ */
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    public static String read(String path) {
+        try (InputStream stream = Fixtures.class.getResourceAsStream("/" + path)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("Missing fixture: " + path);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not read fixture: " + path, e);
+        }
+    }
+
+    /**
+     * Reads an SDP fixture and normalizes its line endings to CRLF.
+     */
+    public static String readSdp(String name) {
+        return read("sdp/" + name).replaceAll("\r?\n", "\r\n");
+    }
+}
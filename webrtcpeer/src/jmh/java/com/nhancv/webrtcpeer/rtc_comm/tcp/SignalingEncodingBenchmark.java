@@ -0,0 +1,64 @@
+package com.nhancv.webrtcpeer.rtc_comm.tcp;
+
+import com.nhancv.webrtcpeer.Fixtures;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of outbound signaling messages: an SDP offer and a trickle ICE candidate, wrapped
+ * in the WebSocketChannelClient "send" envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalingEncodingBenchmark {
+    private static final String CANDIDATE =
+            "candidate:842163049 1 udp 1677729535 203.0.113.7 46154 typ srflx raddr 10.0.2.15 "
+                    + "rport 46154 generation 0 ufrag Ml3h network-cost 50";
+
+    private String offerSdp;
+
+    @Setup
+    public void setUp() {
+        offerSdp = Fixtures.readSdp("android_offer.sdp");
+    }
+
+    @Benchmark
+    public String encodeOffer() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("type", "offer");
+        json.put("sdp", offerSdp);
+        return WebSocketChannelClient.buildSendMessage(json.toString());
+    }
+
+    @Benchmark
+    public String encodeCandidate() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("type", "candidate");
+        json.put("label", 0);
+        json.put("id", "0");
+        json.put("candidate", CANDIDATE);
+        return WebSocketChannelClient.buildSendMessage(json.toString());
+    }
+
+    @Benchmark
+    public String encodeRegister() throws JSONException {
+        return WebSocketChannelClient.buildRegisterMessage("room-2871", "client-8374615");
+    }
+}
@@ -0,0 +1,82 @@
+package com.nhancv.webrtcpeer.rtc_peer.sdp;
+
+import com.nhancv.webrtcpeer.Fixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDP munging as done by PeerConnectionClient for local and remote descriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SdpMungerBenchmark {
+    @Param({"android_offer.sdp", "kurento_answer.sdp", "kurento_multi_video.sdp"})
+    public String corpus;
+
+    private String sdp;
+    private List<String> lines;
+    private SdpMunger remoteMunger;
+
+    @Setup
+    public void setUp() {
+        sdp = Fixtures.readSdp(corpus);
+        lines = new ArrayList<>(SdpSession.parse(sdp).getSessionLines());
+        for (SdpMediaSection section : SdpSession.parse(sdp).getMediaSections()) {
+            lines.addAll(section.getLines());
+        }
+        // Same rewrites as PeerConnectionClient applies to a remote description.
+        remoteMunger = SdpMunger.builder()
+                .preferAudioCodec("ISAC")
+                .preferVideoCodec("H264")
+                .startBitrate("opus", false, 32)
+                .build();
+    }
+
+    @Benchmark
+    public String preferAudioCodec() {
+        return SdpMunger.preferCodec(sdp, "ISAC", true);
+    }
+
+    @Benchmark
+    public String preferVideoCodec() {
+        return SdpMunger.preferCodec(sdp, "H264", false);
+    }
+
+    @Benchmark
+    public String setStartBitrate() {
+        return SdpMunger.setStartBitrate("opus", false, sdp, 32);
+    }
+
+    @Benchmark
+    public String mungeRemoteDescription() {
+        return remoteMunger.munge(sdp);
+    }
+
+    @Benchmark
+    public int parseOnly() {
+        return SdpSession.parse(sdp).getMediaSections().size();
+    }
+
+    @Benchmark
+    public String joinString() {
+        return SdpMunger.joinString(lines, "\r\n", true);
+    }
+}
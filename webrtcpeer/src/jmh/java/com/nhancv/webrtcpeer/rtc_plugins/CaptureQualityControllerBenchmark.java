@@ -0,0 +1,37 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.webrtc.CameraEnumerationAndroid.CaptureFormat;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CaptureQualityController bandwidth to capture format selection, sweeping the seekbar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaptureQualityControllerBenchmark {
+    private int progress;
+
+    @Benchmark
+    public int chooseFormat() {
+        progress = progress % 100 + 1;
+        double targetBandwidth =
+                CaptureQualityController.progressToBandwidth(CaptureQualityController.FORMATS, progress);
+        CaptureFormat format =
+                CaptureQualityController.chooseFormat(CaptureQualityController.FORMATS, targetBandwidth);
+        return format.width + CaptureQualityController.calculateFramerate(targetBandwidth, format);
+    }
+}
@@ -0,0 +1,63 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import com.nhancv.webrtcpeer.Fixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CpuMonitor /proc/stat parsing and moving average bookkeeping.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpuMonitorBenchmark {
+    @State(Scope.Thread)
+    public static class ProcStatState {
+        @Param({"stat_idle.txt", "stat_busy.txt", "stat_short.txt"})
+        public String fixture;
+
+        String procStatLine;
+
+        @Setup
+        public void setUp() {
+            String procStat = Fixtures.read("proc/" + fixture);
+            procStatLine = procStat.substring(0, procStat.indexOf('\n'));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MovingAverageState {
+        final CpuMonitor.MovingAverage movingAverage = new CpuMonitor.MovingAverage(5);
+        double sample;
+    }
+
+    @Benchmark
+    public long parseProcStat(ProcStatState state) {
+        CpuMonitor.ProcStat procStat = CpuMonitor.parseProcStat(state.procStatLine);
+        return procStat.userTime + procStat.systemTime + procStat.idleTime;
+    }
+
+    @Benchmark
+    public double movingAverage(MovingAverageState state) {
+        state.sample += 0.01;
+        if (state.sample > 1) {
+            state.sample = 0;
+        }
+        state.movingAverage.addValue(state.sample);
+        return state.movingAverage.getAverage();
+    }
+}
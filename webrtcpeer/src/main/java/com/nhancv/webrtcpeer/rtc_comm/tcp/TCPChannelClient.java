@@ -11,6 +11,10 @@
 package com.nhancv.webrtcpeer.rtc_comm.tcp;
 
 
+import com.nhancv.webrtcpeer.rtc_util.metrics.ExecutorMetrics;
+import com.nhancv.webrtcpeer.rtc_util.metrics.InstrumentedExecutor;
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
 import org.webrtc.ThreadUtils;
 
 import java.io.BufferedReader;
@@ -36,7 +40,8 @@ import timber.log.Timber;
 public class TCPChannelClient {
     private static final String TAG = TCPChannelClient.class.getSimpleName();
 
-    private final ExecutorService executor;
+    // Events are dispatched through an instrumented view of the executor passed in.
+    private final InstrumentedExecutor executor;
     private final ThreadUtils.ThreadChecker executorThreadCheck;
     private final TCPChannelEvents eventListener;
     private TCPSocket socket;
@@ -51,7 +56,8 @@ public class TCPChannelClient {
      */
     public TCPChannelClient(
             ExecutorService executor, TCPChannelEvents eventListener, String ip, int port) {
-        this.executor = executor;
+        this.executor = new InstrumentedExecutor(
+                executor, TaskCategory.SIGNALING, new ExecutorMetrics(TAG));
         executorThreadCheck = new ThreadUtils.ThreadChecker();
         executorThreadCheck.detachThread();
         this.eventListener = eventListener;
@@ -93,6 +99,13 @@ public class TCPChannelClient {
         socket.send(message);
     }
 
+    /**
+     * Returns queue depth and wait/run times of the events dispatched on the executor.
+     */
+    public ExecutorMetrics getExecutorMetrics() {
+        return executor.getMetrics();
+    }
+
     /**
      * Helper method for firing onTCPError events. Calls onTCPError on the executor thread.
      */
@@ -94,13 +94,10 @@ public class WebSocketChannelClient {
             return;
         }
         Timber.tag(TAG).d("Registering WebSocket for room " + roomId + ". ClientID: " + clientId);
-        JSONObject json = new JSONObject();
         try {
-            json.put("cmd", "register");
-            json.put("roomid", roomId);
-            json.put("clientid", clientId);
-            Timber.tag(TAG).d("C->WSS: %s", json.toString());
-            ws.sendTextMessage(json.toString());
+            String message = buildRegisterMessage(roomId, clientId);
+            Timber.tag(TAG).d("C->WSS: %s", message);
+            ws.sendTextMessage(message);
             state = WebSocketConnectionState.REGISTERED;
             // Send any previously accumulated messages.
             for (String sendMessage : wsSendQueue) {
@@ -127,11 +124,8 @@ public class WebSocketChannelClient {
                 Timber.tag(TAG).e("WebSocket send() in error or closed state : %s", message);
                 return;
             case REGISTERED:
-                JSONObject json = new JSONObject();
                 try {
-                    json.put("cmd", "send");
-                    json.put("msg", message);
-                    message = json.toString();
+                    message = buildSendMessage(message);
                     Timber.tag(TAG).d("C->WSS: %s", message);
                     ws.sendTextMessage(message);
                 } catch (JSONException e) {
@@ -183,6 +177,21 @@ public class WebSocketChannelClient {
         Timber.tag(TAG).d("Disconnecting WebSocket done.");
     }
 
+    static String buildRegisterMessage(String roomId, String clientId) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("cmd", "register");
+        json.put("roomid", roomId);
+        json.put("clientid", clientId);
+        return json.toString();
+    }
+
+    static String buildSendMessage(String message) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("cmd", "send");
+        json.put("msg", message);
+        return json.toString();
+    }
+
     private void reportError(final String errorMessage) {
         Timber.tag(TAG).e(errorMessage);
         handler.post(new Runnable() {
@@ -1,5 +1,7 @@
 package com.nhancv.webrtcpeer.rtc_comm.ws;
 
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
@@ -11,6 +13,11 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
@@ -29,6 +36,9 @@ public class DefaultSocketService implements SocketService {
     private WebSocketClient client;
     private KeyStore keyStore;
     private LooperExecutor executor;
+    // Messages not sent yet, in send order.
+    private final Queue<String> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
     private InputStream certificateSSLFile;
     private SocketCallBack socketCallBack;
@@ -151,15 +161,48 @@ public class DefaultSocketService implements SocketService {
 
     @Override
     public void sendMessage(String message) {
-        executor.execute(() -> {
-            if (isConnected()) {
-                try {
-                    client.send(message.getBytes(StandardCharsets.UTF_8));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        outbox.add(message);
+        scheduleFlush();
+    }
+
+    @Override
+    public void sendMessages(List<String> messages) {
+        outbox.addAll(messages);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        // A burst of sends, e.g. trickle ICE candidates, shares one looper message.
+        if (flushScheduled.compareAndSet(false, true)
+                && !executor.execute(TaskCategory.SIGNALING, this::flushOutbox)) {
+            // The executor is stopped: drop the pending sends, as a direct send would be, and
+            // let the next send schedule a flush again.
+            flushScheduled.set(false);
+            outbox.clear();
+        }
+    }
+
+    private void flushOutbox() {
+        // Cleared before draining, so a message added after the last poll schedules a new
+        // flush instead of waiting for the next send.
+        flushScheduled.set(false);
+        final List<Runnable> sends = new ArrayList<>();
+        String message;
+        while ((message = outbox.poll()) != null) {
+            final String pending = message;
+            sends.add(() -> send(pending));
+        }
+        executor.executeAll(sends);
+    }
+
+    private void send(String message) {
+        if (isConnected()) {
+            try {
+                client.send(message.getBytes(StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        });
+        }
     }
 
     public void setTrustedCertificate(InputStream inputFile) {
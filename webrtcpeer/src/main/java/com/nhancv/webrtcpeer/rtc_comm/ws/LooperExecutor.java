@@ -4,6 +4,10 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import com.nhancv.webrtcpeer.rtc_util.metrics.ExecutorMetrics;
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import timber.log.Timber;
@@ -22,9 +26,12 @@ public class LooperExecutor extends Thread implements Executor {
     // Object used to signal that looper thread has started and Handler instance
     // associated with looper thread has been allocated.
     private final Object looperStartedEvent = new Object();
-    private Handler handler = null;
-    private boolean running = false;
-    private long threadId;
+    private final ExecutorMetrics metrics = new ExecutorMetrics(TAG);
+    // Published once by the looper thread and never changed afterwards, so execute() can
+    // read it without locking.
+    private volatile Handler handler = null;
+    // Set only after |handler| is published, so a thread seeing true also sees the handler.
+    private volatile boolean running = false;
 
     /**
      *
@@ -35,7 +42,6 @@ public class LooperExecutor extends Thread implements Executor {
         synchronized (looperStartedEvent) {
             Timber.tag(TAG).d("Looper thread started.");
             handler = new Handler();
-            threadId = Thread.currentThread().getId();
             looperStartedEvent.notify();
         }
         Looper.loop();
@@ -48,8 +54,6 @@ public class LooperExecutor extends Thread implements Executor {
         if (running) {
             return;
         }
-        running = true;
-        handler = null;
         start();
         // Wait for Hander allocation.
         synchronized (looperStartedEvent) {
@@ -58,10 +62,10 @@ public class LooperExecutor extends Thread implements Executor {
                     looperStartedEvent.wait();
                 } catch (InterruptedException e) {
                     Timber.tag(TAG).e("Can not start looper thread");
-                    running = false;
                 }
             }
         }
+        running = true;
     }
 
     /**
@@ -91,22 +95,81 @@ public class LooperExecutor extends Thread implements Executor {
      * @return True if the current thread is a looper
      */
     public boolean checkOnLooperThread() {
-        return (Thread.currentThread().getId() == threadId);
+        return Thread.currentThread() == this;
+    }
+
+    /**
+     * Returns queue depth and per task category wait/run times of this executor.
+     */
+    public ExecutorMetrics getMetrics() {
+        return metrics;
     }
 
     /**
      * @param runnable The runnable object to be executed
      */
     @Override
-    public synchronized void execute(final Runnable runnable) {
+    public void execute(final Runnable runnable) {
+        execute(TaskCategory.SIGNALING, runnable);
+    }
+
+    /**
+     * @param category Category the runnable is recorded under in {@link #getMetrics()}
+     * @param runnable The runnable object to be executed
+     * @return false if the runnable was dropped because the looper is not running
+     */
+    public boolean execute(TaskCategory category, final Runnable runnable) {
         if (!running) {
             Timber.w("Running looper executor without calling requestStart()");
-            return;
+            return false;
+        }
+        if (Thread.currentThread() == this) {
+            metrics.runInline(category, runnable);
+        } else if (!handler.post(metrics.wrap(category, runnable))) {
+            metrics.onDropped();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs |runnables| in list order with a single looper message, instead of one message
+     * per runnable. Runs them inline if called on the looper thread.
+     *
+     * @param runnables The runnable objects to be executed
+     * @return false if the runnables were dropped because the looper is not running
+     */
+    public boolean executeAll(final List<? extends Runnable> runnables) {
+        if (!running) {
+            Timber.w("Running looper executor without calling requestStart()");
+            return false;
+        }
+        if (runnables.isEmpty()) {
+            return true;
+        }
+        if (Thread.currentThread() == this) {
+            for (Runnable runnable : runnables) {
+                metrics.runInline(TaskCategory.SIGNALING, runnable);
+            }
+            return true;
+        }
+        final Runnable[] batch = new Runnable[runnables.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = metrics.wrap(TaskCategory.SIGNALING, runnables.get(i));
         }
-        if (Thread.currentThread().getId() == threadId) {
-            runnable.run();
-        } else {
-            handler.post(runnable);
+        final boolean posted = handler.post(new Runnable() {
+            @Override
+            public void run() {
+                for (Runnable runnable : batch) {
+                    runnable.run();
+                }
+            }
+        });
+        if (!posted) {
+            for (int i = 0; i < batch.length; i++) {
+                metrics.onDropped();
+            }
         }
+        return posted;
     }
-}
\ No newline at end of file
+}
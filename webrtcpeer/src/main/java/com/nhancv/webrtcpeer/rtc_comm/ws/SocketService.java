@@ -1,6 +1,7 @@
 package com.nhancv.webrtcpeer.rtc_comm.ws;
 
 import java.io.InputStream;
+import java.util.List;
 
 /**
  * Created by nhancao on 6/19/17.
@@ -25,4 +26,14 @@ public interface SocketService {
 
     void sendMessage(String message);
 
+    /**
+     * Sends |messages| in list order. Implementations may hand the whole burst to their
+     * sending thread at once.
+     */
+    default void sendMessages(List<String> messages) {
+        for (String message : messages) {
+            sendMessage(message);
+        }
+    }
+
 }
@@ -0,0 +1,283 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import android.content.Context;
+import android.os.Build;
+
+import org.webrtc.EglBase;
+import org.webrtc.HardwareVideoDecoderFactory;
+import org.webrtc.HardwareVideoEncoderFactory;
+import org.webrtc.VideoCodecInfo;
+import org.webrtc.VideoCodecStatus;
+import org.webrtc.VideoDecoder;
+import org.webrtc.VideoEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * CodecCapabilityProbe
+ * <p>
+ * Description: Finds out once per device and firmware build which hardware video codecs
+ * actually work and how long their encoder/decoder takes to start, by initializing each
+ * codec the hardware factories advertise. Results are cached in a small text file keyed by
+ * {@link Build#FINGERPRINT}, so later factory builds read them instead of probing again.
+ */
+public final class CodecCapabilityProbe {
+    private static final String TAG = "CodecProbe";
+    private static final String CACHE_FILE_NAME = "codec_probe.txt";
+    private static final int PROBE_WIDTH = 640;
+    private static final int PROBE_HEIGHT = 480;
+    private static final int PROBE_BITRATE_KBPS = 500;
+    private static final int PROBE_FPS = 30;
+
+    private CodecCapabilityProbe() {
+    }
+
+    /**
+     * Returns the cached results for this firmware build, probing and caching them first if
+     * there are none. Probing creates hardware codecs, so call it off the main thread.
+     */
+    public static Results loadOrProbe(Context appContext, EglBase.Context eglContext) {
+        final Results cached = loadCached(appContext);
+        if (cached != null) {
+            return cached;
+        }
+        final File cacheFile = new File(appContext.getFilesDir(), CACHE_FILE_NAME);
+        final Results results = probe(eglContext);
+        try (OutputStream out = new FileOutputStream(cacheFile)) {
+            out.write(results.format().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Timber.tag(TAG).e(e, "Failed to cache codec probe results");
+        }
+        return results;
+    }
+
+    /**
+     * Returns the cached results if they were probed on this firmware build, or null.
+     */
+    @Nullable
+    public static Results loadCached(Context appContext) {
+        final Results cached = load(new File(appContext.getFilesDir(), CACHE_FILE_NAME));
+        return cached != null && Build.FINGERPRINT.equals(cached.fingerprint) ? cached : null;
+    }
+
+    /**
+     * Initializes and releases every advertised hardware encoder and decoder once.
+     */
+    public static Results probe(EglBase.Context eglContext) {
+        final List<Result> results = new ArrayList<>();
+        final HardwareVideoEncoderFactory encoderFactory =
+                new HardwareVideoEncoderFactory(eglContext, true /* enableIntelVp8Encoder */, true);
+        for (VideoCodecInfo info : encoderFactory.getSupportedCodecs()) {
+            results.add(probeEncoder(encoderFactory.createEncoder(info), info.name));
+        }
+        final HardwareVideoDecoderFactory decoderFactory = new HardwareVideoDecoderFactory(eglContext);
+        for (VideoCodecInfo info : decoderFactory.getSupportedCodecs()) {
+            results.add(probeDecoder(decoderFactory.createDecoder(info), info.name));
+        }
+        final Results probed = new Results(Build.FINGERPRINT, results);
+        Timber.tag(TAG).d("Probed hardware codecs: %s", probed);
+        return probed;
+    }
+
+    private static Result probeEncoder(@Nullable VideoEncoder encoder, String codec) {
+        if (encoder == null) {
+            return new Result(codec, true, false, 0);
+        }
+        final long startNs = System.nanoTime();
+        VideoCodecStatus status;
+        try {
+            status = encoder.initEncode(new VideoEncoder.Settings(1, PROBE_WIDTH, PROBE_HEIGHT,
+                    PROBE_BITRATE_KBPS, PROBE_FPS, 1, false, new VideoEncoder.Capabilities(false)),
+                    (frame, info) -> {
+                    });
+        } catch (RuntimeException e) {
+            Timber.tag(TAG).w(e, "%s encoder failed to start", codec);
+            status = VideoCodecStatus.ERROR;
+        }
+        final long latencyUs = (System.nanoTime() - startNs) / 1000;
+        encoder.release();
+        return new Result(codec, true, status == VideoCodecStatus.OK, latencyUs);
+    }
+
+    private static Result probeDecoder(@Nullable VideoDecoder decoder, String codec) {
+        if (decoder == null) {
+            return new Result(codec, false, false, 0);
+        }
+        final long startNs = System.nanoTime();
+        VideoCodecStatus status;
+        try {
+            status = decoder.initDecode(new VideoDecoder.Settings(1, PROBE_WIDTH, PROBE_HEIGHT),
+                    (frame, decodeTimeMs, qp) -> {
+                    });
+        } catch (RuntimeException e) {
+            Timber.tag(TAG).w(e, "%s decoder failed to start", codec);
+            status = VideoCodecStatus.ERROR;
+        }
+        final long latencyUs = (System.nanoTime() - startNs) / 1000;
+        decoder.release();
+        return new Result(codec, false, status == VideoCodecStatus.OK, latencyUs);
+    }
+
+    @Nullable
+    private static Results load(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            final byte[] bytes = new byte[(int) cacheFile.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                final int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    break;
+                }
+                read += count;
+            }
+            return Results.parse(new String(bytes, 0, read, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            Timber.tag(TAG).w(e, "Ignoring unreadable codec probe cache");
+            return null;
+        }
+    }
+
+    /**
+     * Probe outcome of one hardware encoder or decoder.
+     */
+    public static final class Result {
+        public final String codec;
+        public final boolean encoder;
+        public final boolean working;
+        // Time initEncode/initDecode took, in microseconds.
+        public final long startupLatencyUs;
+
+        public Result(String codec, boolean encoder, boolean working, long startupLatencyUs) {
+            this.codec = codec;
+            this.encoder = encoder;
+            this.working = working;
+            this.startupLatencyUs = startupLatencyUs;
+        }
+
+        @Override
+        public String toString() {
+            return (encoder ? "encoder " : "decoder ") + codec
+                    + (working ? " " + startupLatencyUs / 1000 + "ms" : " broken");
+        }
+    }
+
+    public static final class Results {
+        private final String fingerprint;
+        private final List<Result> results;
+
+        Results(String fingerprint, List<Result> results) {
+            this.fingerprint = fingerprint;
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public List<Result> getResults() {
+            return results;
+        }
+
+        @Nullable
+        public Result getEncoder(String codec) {
+            return find(codec, true);
+        }
+
+        @Nullable
+        public Result getDecoder(String codec) {
+            return find(codec, false);
+        }
+
+        /**
+         * Returns true if the hardware encoder of |codec| was advertised but failed to start.
+         */
+        public boolean isEncoderBroken(String codec) {
+            final Result result = getEncoder(codec);
+            return result != null && !result.working;
+        }
+
+        /**
+         * Returns the working codec whose hardware encoder and decoder start fastest, or null
+         * if no codec works in hardware both ways.
+         */
+        @Nullable
+        public String getFastestCodec() {
+            String fastest = null;
+            long fastestLatencyUs = Long.MAX_VALUE;
+            for (Result encoder : results) {
+                if (!encoder.encoder || !encoder.working) {
+                    continue;
+                }
+                final Result decoder = getDecoder(encoder.codec);
+                if (decoder == null || !decoder.working) {
+                    continue;
+                }
+                final long latencyUs = encoder.startupLatencyUs + decoder.startupLatencyUs;
+                if (latencyUs < fastestLatencyUs) {
+                    fastest = encoder.codec;
+                    fastestLatencyUs = latencyUs;
+                }
+            }
+            return fastest;
+        }
+
+        @Nullable
+        private Result find(String codec, boolean encoder) {
+            for (Result result : results) {
+                if (result.encoder == encoder && result.codec.equalsIgnoreCase(codec)) {
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Serializes the results as the fingerprint line followed by one
+         * "E|D codec working latencyUs" line per result.
+         */
+        String format() {
+            final StringBuilder builder = new StringBuilder(fingerprint).append('\n');
+            for (Result result : results) {
+                builder.append(result.encoder ? 'E' : 'D').append('\t')
+                        .append(result.codec).append('\t')
+                        .append(result.working ? 1 : 0).append('\t')
+                        .append(result.startupLatencyUs).append('\n');
+            }
+            return builder.toString();
+        }
+
+        static Results parse(String text) {
+            final String[] lines = text.split("\n");
+            final List<Result> results = new ArrayList<>(lines.length);
+            for (int i = 1; i < lines.length; i++) {
+                final String[] fields = lines[i].split("\t");
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("Malformed codec probe line: " + lines[i]);
+                }
+                results.add(new Result(fields[1], "E".equals(fields[0]), "1".equals(fields[2]),
+                        Long.parseLong(fields[3])));
+            }
+            return new Results(lines[0], results);
+        }
+
+        @Override
+        public String toString() {
+            return results.toString();
+        }
+    }
+}
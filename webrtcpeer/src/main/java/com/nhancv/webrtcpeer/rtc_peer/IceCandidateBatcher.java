@@ -0,0 +1,119 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.webrtc.IceCandidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.Nullable;
+
+/**
+ * IceCandidateBatcher
+ * <p>
+ * Description: Groups local trickle-ICE candidates so that a burst of them goes out in one
+ * signaling message. A batch is delivered once it holds |maxCandidates| candidates or once
+ * the window opened by its first candidate expires, whichever comes first, so batching
+ * never delays a candidate by more than the window. A batch without a window still gets
+ * {@link #DEFAULT_WINDOW_MS} as time bound.
+ * <p>
+ * Not thread safe: every method must be called on |executor|, which is also where the
+ * listener is called. Window expiry is timed on one daemon thread shared by all batchers
+ * and then posted to |executor|.
+ */
+public class IceCandidateBatcher {
+    public static final int DEFAULT_WINDOW_MS = 100;
+
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "PCIceBatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Executor executor;
+    private final Listener listener;
+    private int windowMs;
+    private int maxCandidates;
+    private List<IceCandidate> pending = new ArrayList<>();
+    @Nullable
+    private ScheduledFuture<?> windowExpiry;
+    // Bumped on every delivery, so a window that expires late does not cut the next batch.
+    private int generation;
+
+    public IceCandidateBatcher(Executor executor, Listener listener) {
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the batching window in milliseconds and the max candidates per batch; 0 means
+     * no limit of that kind. Batching is disabled when both are 0 or |maxCandidates| is 1.
+     * Candidates pending under the previous configuration are delivered first.
+     */
+    public void configure(int windowMs, int maxCandidates) {
+        if (windowMs < 0 || maxCandidates < 0) {
+            throw new IllegalArgumentException("Negative ICE batching window " + windowMs
+                    + "ms or candidate count " + maxCandidates);
+        }
+        flush();
+        this.windowMs = windowMs;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public boolean isEnabled() {
+        return (windowMs > 0 || maxCandidates > 0) && maxCandidates != 1;
+    }
+
+    public void add(IceCandidate candidate) {
+        pending.add(candidate);
+        if (!isEnabled() || (maxCandidates > 0 && pending.size() >= maxCandidates)) {
+            flush();
+        } else if (pending.size() == 1) {
+            final int batchGeneration = generation;
+            windowExpiry = TIMER.schedule(() -> executor.execute(() -> {
+                if (batchGeneration == generation) {
+                    flush();
+                }
+            }), windowMs > 0 ? windowMs : DEFAULT_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delivers the pending candidates now, e.g. when gathering completes or before local
+     * candidate removals are signaled.
+     */
+    public void flush() {
+        cancelWindow();
+        if (pending.isEmpty()) {
+            return;
+        }
+        final List<IceCandidate> batch = pending;
+        pending = new ArrayList<>();
+        listener.onIceCandidates(batch);
+    }
+
+    /**
+     * Drops the pending candidates.
+     */
+    public void clear() {
+        cancelWindow();
+        pending.clear();
+    }
+
+    private void cancelWindow() {
+        generation++;
+        if (windowExpiry != null) {
+            windowExpiry.cancel(false);
+            windowExpiry = null;
+        }
+    }
+
+    public interface Listener {
+        void onIceCandidates(List<IceCandidate> candidates);
+    }
+}
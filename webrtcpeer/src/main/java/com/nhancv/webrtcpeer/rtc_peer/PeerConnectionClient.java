@@ -13,6 +13,21 @@ import android.content.Context;
 import android.os.Environment;
 import android.os.ParcelFileDescriptor;
 
+import com.nhancv.webrtcpeer.rtc_peer.executor.ExecutionModel;
+import com.nhancv.webrtcpeer.rtc_peer.executor.PeerConnectionExecutor;
+import com.nhancv.webrtcpeer.rtc_peer.sdp.SdpMunger;
+import com.nhancv.webrtcpeer.rtc_peer.stats.RtcStatsCollector;
+import com.nhancv.webrtcpeer.rtc_peer.stats.RtcStatsListener;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsDeltaEngine;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsDeltaListener;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsHistoryRecorder;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsScheduler;
+import com.nhancv.webrtcpeer.rtc_util.metrics.CallSetupTimeline;
+import com.nhancv.webrtcpeer.rtc_util.metrics.CallSetupTimeline.Phase;
+import com.nhancv.webrtcpeer.rtc_util.metrics.ExecutorMetrics;
+import com.nhancv.webrtcpeer.rtc_util.metrics.LatencyHistogram;
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
 import org.webrtc.AudioSource;
 import org.webrtc.AudioTrack;
 import org.webrtc.CameraVideoCapturer;
@@ -64,15 +79,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 
 import androidx.annotation.Nullable;
 import timber.log.Timber;
@@ -96,13 +111,11 @@ public class PeerConnectionClient {
     private static final String VIDEO_CODEC_H264_HIGH = "H264 High";
     private static final String AUDIO_CODEC_OPUS = "opus";
     private static final String AUDIO_CODEC_ISAC = "ISAC";
-    private static final String VIDEO_CODEC_PARAM_START_BITRATE = "x-google-start-bitrate";
     private static final String VIDEO_FLEXFEC_FIELDTRIAL =
             "WebRTC-FlexFEC-03-Advertised/Enabled/WebRTC-FlexFEC-03/Enabled/";
     private static final String VIDEO_VP8_INTEL_HW_ENCODER_FIELDTRIAL = "WebRTC-IntelVP8/Enabled/";
     private static final String DISABLE_WEBRTC_AGC_FIELDTRIAL =
             "WebRTC-Audio-MinimizeResamplingOnMobile/Enabled/";
-    private static final String AUDIO_CODEC_PARAM_BITRATE = "maxaveragebitrate";
     private static final String AUDIO_ECHO_CANCELLATION_CONSTRAINT = "googEchoCancellation";
     private static final String AUDIO_AUTO_GAIN_CONTROL_CONSTRAINT = "googAutoGainControl";
     private static final String AUDIO_HIGH_PASS_FILTER_CONSTRAINT = "googHighpassFilter";
@@ -113,14 +126,27 @@ public class PeerConnectionClient {
     private static final int HD_VIDEO_HEIGHT = 720;
     private static final int BPS_IN_KBPS = 1000;
     private static final String RTCEVENTLOG_OUTPUT_DIR_NAME = "rtc_event_log";
-    // Executor thread is started once in private ctor and is used for all
-    // peer connection API calls to ensure new peer connection factory is
-    // created on the same thread as previously destroyed factory.
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final String STATS_HISTORY_OUTPUT_DIR_NAME = "stats_history";
+    // Serialized lane used for all peer connection API calls of this client. The thread
+    // behind it is picked by the ExecutionModel given at construction.
+    private final PeerConnectionExecutor executor;
     private final PCObserver pcObserver = new PCObserver();
     private final SDPObserver sdpObserver = new SDPObserver();
-    private final Timer statsTimer = new Timer();
+    private final StatsScheduler statsScheduler;
+    private final IceCandidateBatcher localCandidateBatcher;
+    @Nullable
+    private volatile StatsHistoryRecorder statsHistoryRecorder;
+    private final RtcStatsCollector statsCollector;
+    private final StatsDeltaEngine statsDeltaEngine = new StatsDeltaEngine();
+    // Whether polls also go through the deprecated getStats API for onPeerConnectionStatsReady.
+    private volatile boolean legacyStatsReportsEnabled = true;
     private final EglBase rootEglBase;
+    // True if the factory and |rootEglBase| come from PeerConnectionFactoryPool.
+    private final boolean pooledFactory;
+    // Whether this client holds one of the pool's trace capture references.
+    private boolean tracingStarted;
+    @Nullable
+    private PeerConnectionFactoryPool.Lease factoryLease;
     private final Context appContext;
     private final PeerConnectionParameters peerConnectionParameters;
     private final PeerConnectionEvents events;
@@ -147,11 +173,15 @@ public class PeerConnectionClient {
     private int videoFps;
     private MediaConstraints audioConstraints;
     private MediaConstraints sdpMediaConstraints;
+    // SDP rewrites applied to locally created and to remote descriptions. Built once per
+    // peer connection and applied in a single pass over each description.
+    private SdpMunger localSdpMunger;
+    private SdpMunger remoteSdpMunger;
     // Queued remote ICE candidates are consumed only after both local and
     // remote descriptions are set. Similarly local ICE candidates are sent to
     // remote peer after both local and remote description are set.
-    @Nullable
-    private List<IceCandidate> queuedRemoteCandidates;
+    private final RemoteIceCandidateQueue remoteCandidates = new RemoteIceCandidateQueue();
+    private final CallSetupTimeline callSetupTimeline = new CallSetupTimeline();
     private boolean isInitiator;
     @Nullable
     private SessionDescription localSdp; // either offer or answer SDP
@@ -161,8 +191,13 @@ public class PeerConnectionClient {
     private boolean renderVideo = true;
     @Nullable
     private VideoTrack localVideoTrack;
+    // Sinks tapping local frames, attached to |localVideoTrack| once it exists.
+    private final List<VideoSink> localFrameTaps = new ArrayList<>();
     @Nullable
     private VideoTrack remoteVideoTrack;
+    // Remote video tracks by track id, in discovery order. An entry without a track holds
+    // sinks routed to a track that has not arrived yet.
+    private final Map<String, RemoteVideo> remoteVideos = new LinkedHashMap<>();
     @Nullable
     private RtpSender localVideoSender;
     // enableAudio is set to true if audio should be sent.
@@ -172,6 +207,14 @@ public class PeerConnectionClient {
     @Nullable
     private DataChannel dataChannel;
     private final boolean dataChannelEnabled;
+    // When true, a pending control update is replaced by a newer one of the same kind.
+    private volatile boolean coalesceControlUpdates = true;
+    // Requested state of the simulcast layers by RID, applied by the SIMULCAST_LAYERS update.
+    private final Map<String, Boolean> simulcastLayerActive = new ConcurrentHashMap<>();
+    // Last budget of the whole video sender passed to setVideoMaxBitrate, null for none.
+    // Only used with simulcast, on the executor.
+    @Nullable
+    private Integer videoMaxBitrateKbps;
 
     /**
      * Peer connection parameters.
@@ -221,6 +264,8 @@ public class PeerConnectionClient {
         public final boolean disableWebRtcAGCAndHPF;
         public final StreamMode streamMode;
         private final DataChannelParameters dataChannelParameters;
+        // Encodings of the video sender, lowest resolution first. Empty for a single encoding.
+        public final List<SimulcastLayer> simulcastLayers;
 
         public PeerConnectionParameters(boolean videoCallEnabled, boolean loopback, boolean tracing,
                                         int videoWidth, int videoHeight, int videoFps, int videoMaxBitrate, String videoCodec,
@@ -228,6 +273,25 @@ public class PeerConnectionClient {
                                         String audioCodec, boolean noAudioProcessing, boolean aecDump, boolean useOpenSLES,
                                         boolean disableBuiltInAEC, boolean disableBuiltInAGC, boolean disableBuiltInNS, boolean disableWebRtcAGCAndHPF,
                                         boolean enableLevelControl, StreamMode streamMode, DataChannelParameters dataChannelParameters) {
+            this(videoCallEnabled, loopback, tracing, videoWidth, videoHeight, videoFps, videoMaxBitrate, videoCodec,
+                    videoCodecHwAcceleration, videoFlexfecEnabled, audioStartBitrate, audioCodec, noAudioProcessing,
+                    aecDump, useOpenSLES, disableBuiltInAEC, disableBuiltInAGC, disableBuiltInNS,
+                    disableWebRtcAGCAndHPF, enableLevelControl, streamMode, dataChannelParameters,
+                    Collections.<SimulcastLayer>emptyList());
+        }
+
+        /**
+         * Like the constructor above, publishing video as one encoding per |simulcastLayers|
+         * entry. Simulcast needs the software VP8 encoder: the hardware encoders of WebRTC
+         * 1.0.32006 can not simulcast, so keep |videoCodecHwAcceleration| off.
+         */
+        public PeerConnectionParameters(boolean videoCallEnabled, boolean loopback, boolean tracing,
+                                        int videoWidth, int videoHeight, int videoFps, int videoMaxBitrate, String videoCodec,
+                                        boolean videoCodecHwAcceleration, boolean videoFlexfecEnabled, int audioStartBitrate,
+                                        String audioCodec, boolean noAudioProcessing, boolean aecDump, boolean useOpenSLES,
+                                        boolean disableBuiltInAEC, boolean disableBuiltInAGC, boolean disableBuiltInNS, boolean disableWebRtcAGCAndHPF,
+                                        boolean enableLevelControl, StreamMode streamMode, DataChannelParameters dataChannelParameters,
+                                        List<SimulcastLayer> simulcastLayers) {
             this.videoCallEnabled = videoCallEnabled;
             this.loopback = loopback;
             this.tracing = tracing;
@@ -250,6 +314,11 @@ public class PeerConnectionClient {
             this.enableLevelControl = enableLevelControl;
             this.streamMode = streamMode;
             this.dataChannelParameters = dataChannelParameters;
+            this.simulcastLayers = Collections.unmodifiableList(new ArrayList<>(simulcastLayers));
+        }
+
+        public boolean isSimulcastEnabled() {
+            return simulcastLayers.size() > 1;
         }
     }
 
@@ -267,6 +336,18 @@ public class PeerConnectionClient {
          */
         void onIceCandidate(final IceCandidate candidate);
 
+        /**
+         * Callback fired once a batch of local Ice candidates is ready, when candidate
+         * batching is enabled. Implementations should send the batch in one signaling
+         * message, e.g. with RTCClient.sendLocalIceCandidates; by default each candidate is
+         * delivered to {@link #onIceCandidate}.
+         */
+        default void onIceCandidates(final List<IceCandidate> candidates) {
+            for (IceCandidate candidate : candidates) {
+                onIceCandidate(candidate);
+            }
+        }
+
         /**
          * Callback fired once local ICE candidates are removed.
          */
@@ -296,6 +377,20 @@ public class PeerConnectionClient {
          */
         void onDisconnected();
 
+        /**
+         * Callback fired once a remote video track is received. Route it with
+         * PeerConnectionClient.setRemoteVideoSink; |streamIds| are the ids of the remote
+         * streams it belongs to, e.g. one per participant of an SFU.
+         */
+        default void onRemoteVideoTrackAdded(final String trackId, final List<String> streamIds) {
+        }
+
+        /**
+         * Callback fired once a remote video track is removed by renegotiation.
+         */
+        default void onRemoteVideoTrackRemoved(final String trackId) {
+        }
+
         /**
          * Callback fired once peer connection is closed.
          */
@@ -318,6 +413,45 @@ public class PeerConnectionClient {
      */
     public PeerConnectionClient(Context appContext, EglBase eglBase,
                                 PeerConnectionParameters peerConnectionParameters, PeerConnectionEvents events) {
+        this(appContext, eglBase, peerConnectionParameters, events, ExecutionModel.shared());
+    }
+
+    /**
+     * Create a PeerConnectionClient whose API calls run on a lane of |executionModel|. Calls
+     * of one client always run in order; the model decides which clients share a thread.
+     */
+    public PeerConnectionClient(Context appContext, EglBase eglBase,
+                                PeerConnectionParameters peerConnectionParameters, PeerConnectionEvents events,
+                                ExecutionModel executionModel) {
+        this(appContext, eglBase, false, peerConnectionParameters, events, executionModel);
+    }
+
+    /**
+     * Create a PeerConnectionClient that takes its factory from PeerConnectionFactoryPool, so
+     * WebRTC initialization and the factory are shared with other calls. Renderers must be
+     * initialized with {@link #getEglBase()}.
+     */
+    public PeerConnectionClient(Context appContext, PeerConnectionParameters peerConnectionParameters,
+                                PeerConnectionEvents events) {
+        this(appContext, peerConnectionParameters, events, ExecutionModel.shared());
+    }
+
+    public PeerConnectionClient(Context appContext, PeerConnectionParameters peerConnectionParameters,
+                                PeerConnectionEvents events, ExecutionModel executionModel) {
+        this(appContext, PeerConnectionFactoryPool.getEglBase(), true, peerConnectionParameters, events,
+                executionModel);
+    }
+
+    private PeerConnectionClient(Context appContext, EglBase eglBase, boolean pooledFactory,
+                                 PeerConnectionParameters peerConnectionParameters, PeerConnectionEvents events,
+                                 ExecutionModel executionModel) {
+        this.pooledFactory = pooledFactory;
+        this.executor = executionModel.newExecutor();
+        this.statsCollector = new RtcStatsCollector(executor);
+        this.statsScheduler =
+                new StatsScheduler(() -> executor.execute(TaskCategory.STATS, this::getStats));
+        this.localCandidateBatcher = new IceCandidateBatcher(
+                task -> executor.execute(TaskCategory.ICE, task), this::onLocalIceCandidates);
         this.rootEglBase = eglBase;
         this.appContext = appContext;
         this.events = events;
@@ -325,16 +459,46 @@ public class PeerConnectionClient {
         this.dataChannelEnabled = peerConnectionParameters.dataChannelParameters != null;
         Timber.tag(TAG).d("Preferred video codec: %s", getSdpVideoCodecName(peerConnectionParameters));
         final String fieldTrials = getFieldTrials(peerConnectionParameters);
-        executor.execute(() -> {
-            Timber.tag(TAG).d("Initialize WebRTC. Field trials: %s", fieldTrials);
-            PeerConnectionFactory.initialize(
-                    PeerConnectionFactory.InitializationOptions.builder(appContext)
-                            .setFieldTrials(fieldTrials)
-                            .setEnableInternalTracer(true)
-                            .createInitializationOptions());
+        executor.execute(TaskCategory.OTHER, () -> {
+            if (pooledFactory) {
+                PeerConnectionFactoryPool.initialize(appContext, fieldTrials);
+            } else {
+                Timber.tag(TAG).d("Initialize WebRTC. Field trials: %s", fieldTrials);
+                // Native factory calls stay on the pool's thread whatever lane this client uses.
+                PeerConnectionFactoryPool.runOnFactoryThread(() -> PeerConnectionFactory.initialize(
+                        PeerConnectionFactory.InitializationOptions.builder(appContext)
+                                .setFieldTrials(fieldTrials)
+                                .setEnableInternalTracer(true)
+                                .createInitializationOptions()));
+            }
+            callSetupTimeline.mark(Phase.WEBRTC_INITIALIZED);
         });
     }
 
+    /**
+     * Prepares WebRTC for pooled clients with default parameters on a background thread, so
+     * the first call does not pay for it. Call it at app start.
+     */
+    public static Future<?> warmUp(Context appContext) {
+        return PeerConnectionFactoryPool.warmUp(appContext, VIDEO_VP8_INTEL_HW_ENCODER_FIELDTRIAL, false);
+    }
+
+    /**
+     * Like {@link #warmUp(Context)}, for pooled clients that will use |parameters|.
+     */
+    public static Future<?> warmUp(Context appContext, PeerConnectionParameters parameters) {
+        return PeerConnectionFactoryPool.warmUp(appContext, getFieldTrials(parameters),
+                VIDEO_CODEC_H264_HIGH.equals(parameters.videoCodec));
+    }
+
+    /**
+     * Returns the EGL context the codecs of this client run in, which local and remote
+     * renderers should share.
+     */
+    public EglBase getEglBase() {
+        return rootEglBase;
+    }
+
     /**
      * This function should only be called once.
      */
@@ -342,7 +506,7 @@ public class PeerConnectionClient {
         if (factory != null) {
             throw new IllegalStateException("PeerConnectionFactory has already been constructed");
         }
-        executor.execute(() -> createPeerConnectionFactoryInternal(options));
+        executor.execute(TaskCategory.OTHER, () -> createPeerConnectionFactoryInternal(options));
     }
 
     public void createPeerConnection(final VideoSink localRender, final VideoSink remoteSink,
@@ -364,7 +528,7 @@ public class PeerConnectionClient {
         this.remoteSinks = remoteSinks;
         this.videoCapturer = videoCapturer;
         this.signalingParameters = signalingParameters;
-        executor.execute(() -> {
+        executor.execute(TaskCategory.OTHER, () -> {
             try {
                 createMediaConstraintsInternal();
                 createPeerConnectionInternal();
@@ -376,7 +540,7 @@ public class PeerConnectionClient {
     }
 
     public void close() {
-        executor.execute(this::closeInternal);
+        executor.execute(TaskCategory.CLOSE, this::closeInternal);
     }
 
     private boolean isVideoCallEnabled() {
@@ -386,19 +550,39 @@ public class PeerConnectionClient {
     private void createPeerConnectionFactoryInternal(PeerConnectionFactory.Options options) {
         isError = false;
         if (peerConnectionParameters.tracing) {
-            PeerConnectionFactory.startInternalTracingCapture(
-                    Environment.getExternalStorageDirectory().getAbsolutePath() + File.separator
-                            + "webrtc-trace.txt");
+            final String tracePath = Environment.getExternalStorageDirectory().getAbsolutePath()
+                    + File.separator + "webrtc-trace.txt";
+            if (pooledFactory) {
+                // Other calls may be tracing too; the pool stops with the last of them.
+                PeerConnectionFactoryPool.startTracing(tracePath);
+                tracingStarted = true;
+            } else {
+                PeerConnectionFactoryPool.runOnFactoryThread(
+                        () -> PeerConnectionFactory.startInternalTracingCapture(tracePath));
+            }
         }
         // Check if ISAC is used by default.
         preferIsac = peerConnectionParameters.audioCodec != null
                 && peerConnectionParameters.audioCodec.equals(AUDIO_CODEC_ISAC);
+        if (pooledFactory) {
+            factoryLease = PeerConnectionFactoryPool.acquire(getFactoryKey(options),
+                    audioErrorListener -> buildFactory(options, audioErrorListener), this::reportError);
+            factory = factoryLease.getFactory();
+        } else {
+            factory = PeerConnectionFactoryPool.callOnFactoryThread(
+                    () -> buildFactory(options, this::reportError));
+        }
+        callSetupTimeline.mark(Phase.FACTORY_CREATED);
+    }
+
+    private PeerConnectionFactory buildFactory(
+            PeerConnectionFactory.Options options, PeerConnectionFactoryPool.AudioErrorListener audioErrorListener) {
         // It is possible to save a copy in raw PCM format on a file by checking
         // the "Save input audio to file" checkbox in the Settings UI. A callback
         // interface is set when this flag is enabled. As a result, a copy of recorded
         // audio samples are provided to this client directly from the native audio
         // layer in Java.
-        final AudioDeviceModule adm = createJavaAudioDevice();
+        final AudioDeviceModule adm = createJavaAudioDevice(audioErrorListener);
         // Create peer connection factory.
         if (options != null) {
             Timber.tag(TAG).d("Factory networkIgnoreMask option: %s", options.networkIgnoreMask);
@@ -407,7 +591,10 @@ public class PeerConnectionClient {
                 VIDEO_CODEC_H264_HIGH.equals(peerConnectionParameters.videoCodec);
         final VideoEncoderFactory encoderFactory;
         final VideoDecoderFactory decoderFactory;
-        if (peerConnectionParameters.videoCodecHwAcceleration) {
+        if (peerConnectionParameters.videoCodecHwAcceleration && pooledFactory) {
+            encoderFactory = PeerConnectionFactoryPool.getHardwareEncoderFactory(enableH264HighProfile);
+            decoderFactory = PeerConnectionFactoryPool.getHardwareDecoderFactory();
+        } else if (peerConnectionParameters.videoCodecHwAcceleration) {
             encoderFactory = new DefaultVideoEncoderFactory(
                     rootEglBase.getEglBaseContext(), true /* enableIntelVp8Encoder */, enableH264HighProfile);
             decoderFactory = new DefaultVideoDecoderFactory(rootEglBase.getEglBaseContext());
@@ -415,7 +602,7 @@ public class PeerConnectionClient {
             encoderFactory = new SoftwareVideoEncoderFactory();
             decoderFactory = new SoftwareVideoDecoderFactory();
         }
-        factory = PeerConnectionFactory.builder()
+        final PeerConnectionFactory factory = PeerConnectionFactory.builder()
                 .setOptions(options)
                 .setAudioDeviceModule(adm)
                 .setVideoEncoderFactory(encoderFactory)
@@ -423,9 +610,24 @@ public class PeerConnectionClient {
                 .createPeerConnectionFactory();
         Timber.tag(TAG).d("Peer connection factory created.");
         adm.release();
+        return factory;
     }
 
-    AudioDeviceModule createJavaAudioDevice() {
+    /**
+     * Returns the key of the pooled factory matching everything buildFactory depends on.
+     */
+    private String getFactoryKey(PeerConnectionFactory.Options options) {
+        return "hw=" + peerConnectionParameters.videoCodecHwAcceleration
+                + ",h264High=" + VIDEO_CODEC_H264_HIGH.equals(peerConnectionParameters.videoCodec)
+                + ",aec=" + !peerConnectionParameters.disableBuiltInAEC
+                + ",ns=" + !peerConnectionParameters.disableBuiltInNS
+                + (options == null ? "" : ",ignore=" + options.networkIgnoreMask
+                + ",noEncryption=" + options.disableEncryption
+                + ",noNetworkMonitor=" + options.disableNetworkMonitor);
+    }
+
+    AudioDeviceModule createJavaAudioDevice(
+            final PeerConnectionFactoryPool.AudioErrorListener audioErrorListener) {
         // Enable/disable OpenSL ES playback.
         if (!peerConnectionParameters.useOpenSLES) {
             Timber.tag(TAG).w("External OpenSLES ADM not implemented yet.");
@@ -436,40 +638,40 @@ public class PeerConnectionClient {
             @Override
             public void onWebRtcAudioRecordInitError(String errorMessage) {
                 Timber.tag(TAG).e("onWebRtcAudioRecordInitError: %s", errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
 
             @Override
             public void onWebRtcAudioRecordStartError(
                     JavaAudioDeviceModule.AudioRecordStartErrorCode errorCode, String errorMessage) {
                 Timber.tag(TAG).e("onWebRtcAudioRecordStartError: " + errorCode + ". " + errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
 
             @Override
             public void onWebRtcAudioRecordError(String errorMessage) {
                 Timber.tag(TAG).e("onWebRtcAudioRecordError: %s", errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
         };
         AudioTrackErrorCallback audioTrackErrorCallback = new AudioTrackErrorCallback() {
             @Override
             public void onWebRtcAudioTrackInitError(String errorMessage) {
                 Timber.tag(TAG).e("onWebRtcAudioTrackInitError: %s", errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
 
             @Override
             public void onWebRtcAudioTrackStartError(
                     JavaAudioDeviceModule.AudioTrackStartErrorCode errorCode, String errorMessage) {
                 Timber.e("onWebRtcAudioTrackStartError: " + errorCode + ". " + errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
 
             @Override
             public void onWebRtcAudioTrackError(String errorMessage) {
                 Timber.tag(TAG).e("onWebRtcAudioTrackError: %s", errorMessage);
-                reportError(errorMessage);
+                audioErrorListener.onAudioDeviceError(errorMessage);
             }
         };
         // Set audio record state callbacks.
@@ -548,6 +750,20 @@ public class PeerConnectionClient {
                 new MediaConstraints.KeyValuePair("OfferToReceiveAudio", "true"));
         sdpMediaConstraints.mandatory.add(new MediaConstraints.KeyValuePair(
                 "OfferToReceiveVideo", Boolean.toString(isVideoCallEnabled())));
+        // Create SDP mungers.
+        final String preferredAudioCodec = preferIsac ? AUDIO_CODEC_ISAC : null;
+        final String preferredVideoCodec =
+                isVideoCallEnabled() ? getWorkingVideoCodecName() : null;
+        localSdpMunger = SdpMunger.builder()
+                .preferAudioCodec(preferredAudioCodec)
+                .preferVideoCodec(preferredVideoCodec)
+                .build();
+        remoteSdpMunger = SdpMunger.builder()
+                .preferAudioCodec(preferredAudioCodec)
+                .preferVideoCodec(preferredVideoCodec)
+                .startBitrate(peerConnectionParameters.audioStartBitrate > 0 ? AUDIO_CODEC_OPUS : null,
+                        false, peerConnectionParameters.audioStartBitrate)
+                .build();
     }
 
     private void createPeerConnectionInternal() {
@@ -556,7 +772,7 @@ public class PeerConnectionClient {
             return;
         }
         Timber.tag(TAG).d("Create peer connection.");
-        queuedRemoteCandidates = new ArrayList<>();
+        remoteCandidates.reset();
         PeerConnection.RTCConfiguration rtcConfig =
                 new PeerConnection.RTCConfiguration(signalingParameters.iceServers);
         // TCP candidates are only useful when connecting to a server that supports
@@ -571,6 +787,7 @@ public class PeerConnectionClient {
         rtcConfig.enableDtlsSrtp = !peerConnectionParameters.loopback;
         rtcConfig.sdpSemantics = PeerConnection.SdpSemantics.UNIFIED_PLAN;
         peerConnection = factory.createPeerConnection(rtcConfig, pcObserver);
+        callSetupTimeline.mark(Phase.PEER_CONNECTION_CREATED);
         if (dataChannelEnabled) {
             DataChannel.Init init = new DataChannel.Init();
             init.ordered = peerConnectionParameters.dataChannelParameters.ordered;
@@ -586,20 +803,30 @@ public class PeerConnectionClient {
         // NOTE: this _must_ happen while |factory| is alive!
         Logging.enableLogToDebugOutput(Logging.Severity.LS_INFO);
         List<String> mediaStreamLabels = Collections.singletonList("ARDAMS");
-        if (isVideoCallEnabled()) {
+        if (isVideoCallEnabled() && peerConnectionParameters.isSimulcastEnabled()) {
+            final List<RtpParameters.Encoding> encodings = new ArrayList<>();
+            for (SimulcastLayer layer : peerConnectionParameters.simulcastLayers) {
+                encodings.add(layer.toEncoding());
+            }
+            Timber.tag(TAG).d("Simulcast layers: %s", peerConnectionParameters.simulcastLayers);
+            if (peerConnectionParameters.videoCodecHwAcceleration) {
+                Timber.tag(TAG).w("Hardware encoders can not simulcast, layers need software VP8.");
+            }
+            localVideoSender = peerConnection.addTransceiver(createVideoTrack(videoCapturer),
+                    new RtpTransceiver.RtpTransceiverInit(RtpTransceiver.RtpTransceiverDirection.SEND_RECV,
+                            mediaStreamLabels, encodings)).getSender();
+        } else if (isVideoCallEnabled()) {
             peerConnection.addTrack(createVideoTrack(videoCapturer), mediaStreamLabels);
             // We can add the renderers right away because we don't need to wait for an
             // answer to get the remote track.
             remoteVideoTrack = getRemoteVideoTrack();
-            remoteVideoTrack.setEnabled(renderVideo);
-            for (VideoSink remoteSink : remoteSinks) {
-                remoteVideoTrack.addSink(remoteSink);
-            }
+            addRemoteVideoTrack(remoteVideoTrack, null, remoteSinks);
         }
         peerConnection.addTrack(createAudioTrack(), mediaStreamLabels);
         if (isVideoCallEnabled()) {
             findVideoSender();
         }
+        callSetupTimeline.mark(Phase.TRACKS_CREATED);
         if (peerConnectionParameters.aecDump) {
             try {
                 ParcelFileDescriptor aecDumpFileDescriptor =
@@ -607,7 +834,11 @@ public class PeerConnectionClient {
                                         + File.separator + "Download/audio.aecdump"),
                                 ParcelFileDescriptor.MODE_READ_WRITE | ParcelFileDescriptor.MODE_CREATE
                                         | ParcelFileDescriptor.MODE_TRUNCATE);
-                factory.startAecDump(aecDumpFileDescriptor.detachFd(), -1);
+                if (factoryLease != null) {
+                    factoryLease.startAecDump(aecDumpFileDescriptor.detachFd(), -1);
+                } else {
+                    factory.startAecDump(aecDumpFileDescriptor.detachFd(), -1);
+                }
             } catch (IOException e) {
                 Timber.tag(TAG).e(e, "Can not open aecdump file");
             }
@@ -623,12 +854,39 @@ public class PeerConnectionClient {
                 appContext.getDir(RTCEVENTLOG_OUTPUT_DIR_NAME, Context.MODE_PRIVATE), outputFileName);
     }
 
+    private File createStatsHistoryOutputFile() {
+        DateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_hhmm_ss", Locale.getDefault());
+        Date date = new Date();
+        final String outputFileName = "stats_" + dateFormat.format(date) + ".bin";
+        return new File(
+                appContext.getDir(STATS_HISTORY_OUTPUT_DIR_NAME, Context.MODE_PRIVATE), outputFileName);
+    }
+
+    private void saveStatsHistory() {
+        final StatsHistoryRecorder recorder = statsHistoryRecorder;
+        if (recorder == null || recorder.size() == 0) {
+            return;
+        }
+        final File outputFile = createStatsHistoryOutputFile();
+        try {
+            recorder.writeTo(outputFile);
+            Timber.tag(TAG).d("Saved %d stats samples to %s", recorder.size(), outputFile);
+        } catch (IOException e) {
+            Timber.tag(TAG).e(e, "Failed to save stats history");
+        }
+    }
+
     private void closeInternal() {
-        if (factory != null && peerConnectionParameters.aecDump) {
+        if (factoryLease != null) {
+            // Stops the dump only if this call started it; the factory may be shared.
+            factoryLease.stopAecDump();
+        } else if (factory != null && peerConnectionParameters.aecDump) {
             factory.stopAecDump();
         }
         Timber.tag(TAG).d("Closing peer connection.");
-        statsTimer.cancel();
+        statsScheduler.stop();
+        localCandidateBatcher.clear();
+        saveStatsHistory();
         if (dataChannel != null) {
             dataChannel.dispose();
             dataChannel = null;
@@ -663,28 +921,113 @@ public class PeerConnectionClient {
             surfaceTextureHelper = null;
         }
         localRender = null;
+        localVideoTrack = null;
+        localFrameTaps.clear();
         remoteSinks = null;
+        remoteVideoTrack = null;
+        remoteVideos.clear();
         Timber.tag(TAG).d("Closing peer connection factory.");
-        if (factory != null) {
-            factory.dispose();
+        if (factoryLease != null) {
+            // The pool disposes the factory once no call uses it any more.
+            factoryLease.release();
+            factoryLease = null;
+            factory = null;
+        } else if (factory != null) {
+            // Disposed on the thread it was built on, before its EGL context is released.
+            PeerConnectionFactoryPool.runOnFactoryThread(factory::dispose);
             factory = null;
         }
-        rootEglBase.release();
+        if (!pooledFactory) {
+            rootEglBase.release();
+        }
         Timber.tag(TAG).d("Closing peer connection done.");
         events.onPeerConnectionClosed();
-        PeerConnectionFactory.stopInternalTracingCapture();
-        PeerConnectionFactory.shutdownInternalTracer();
+        if (tracingStarted) {
+            PeerConnectionFactoryPool.stopTracing();
+            tracingStarted = false;
+        } else if (!pooledFactory) {
+            PeerConnectionFactoryPool.runOnFactoryThread(() -> {
+                PeerConnectionFactory.stopInternalTracingCapture();
+                PeerConnectionFactory.shutdownInternalTracer();
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Returns when each setup step of this call was reached, relative to the creation of
+     * this client.
+     */
+    public CallSetupTimeline getCallSetupTimeline() {
+        return callSetupTimeline;
+    }
+
+    /**
+     * Returns queue depth and per task category wait/run times of this client's executor,
+     * e.g. to find out which work delays call setup.
+     */
+    public ExecutorMetrics getExecutorMetrics() {
+        return executor.getMetrics();
     }
 
     public boolean isHDVideo() {
         return isVideoCallEnabled() && videoWidth * videoHeight >= 1280 * 720;
     }
 
-    @SuppressWarnings("deprecation") // TODO(sakal): getStats is deprecated.
+    /**
+     * Adds a listener for typed stats, delivered on each poll enabled by
+     * {@link #enableStatsEvents}. Polls use the standard getStats API while at least one
+     * listener is registered.
+     */
+    public void addStatsListener(RtcStatsListener listener) {
+        statsCollector.addListener(listener);
+    }
+
+    public void removeStatsListener(RtcStatsListener listener) {
+        statsCollector.removeListener(listener);
+    }
+
+    /**
+     * Adds a listener for per-interval rates (kbps, fps, loss %, RTT) computed from
+     * consecutive polls enabled by {@link #enableStatsEvents}.
+     */
+    public void addStatsDeltaListener(StatsDeltaListener listener) {
+        statsDeltaEngine.addListener(listener);
+        statsCollector.addListener(statsDeltaEngine);
+    }
+
+    public void removeStatsDeltaListener(StatsDeltaListener listener) {
+        statsDeltaEngine.removeListener(listener);
+        if (!statsDeltaEngine.hasListeners()) {
+            statsCollector.removeListener(statsDeltaEngine);
+            executor.execute(TaskCategory.STATS, statsDeltaEngine::reset);
+        }
+    }
+
+    /**
+     * Enables or disables polling the deprecated getStats API for
+     * {@link PeerConnectionEvents#onPeerConnectionStatsReady} (enabled by default). Disable
+     * it once all consumers moved to {@link #addStatsListener}; every legacy poll builds
+     * string-keyed StatsReport objects for all stats.
+     */
+    public void setLegacyStatsReportsEnabled(boolean enabled) {
+        legacyStatsReportsEnabled = enabled;
+    }
+
     private void getStats() {
         if (peerConnection == null || isError) {
             return;
         }
+        if (statsCollector.hasListeners()) {
+            peerConnection.getStats(statsCollector);
+        }
+        if (legacyStatsReportsEnabled) {
+            getLegacyStats();
+        }
+    }
+
+    @SuppressWarnings("deprecation") // TODO(sakal): getStats is deprecated.
+    private void getLegacyStats() {
         boolean success = peerConnection.getStats(new StatsObserver() {
             @Override
             public void onComplete(final StatsReport[] reports) {
@@ -696,25 +1039,96 @@ public class PeerConnectionClient {
         }
     }
 
+    /**
+     * Starts polling stats every |periodMs|, or stops polling. Can be called again at any
+     * time to change the period or to restart polling.
+     */
     public void enableStatsEvents(boolean enable, int periodMs) {
+        removeStatsDeltaListener(statsScheduler);
         if (enable) {
-            try {
-                statsTimer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        executor.execute(() -> getStats());
-                    }
-                }, 0, periodMs);
-            } catch (Exception e) {
-                Timber.tag(TAG).e(e, "Can not schedule statistics timer");
-            }
+            statsScheduler.start(periodMs);
         } else {
-            statsTimer.cancel();
+            statsScheduler.stop();
         }
     }
 
+    /**
+     * Starts polling stats every |fastPeriodMs| during call setup, ICE reconnection and
+     * while loss, RTT or bandwidth limitation show degradation, backing off to at most
+     * |slowPeriodMs| while the call is stable.
+     */
+    public void enableAdaptiveStatsEvents(int fastPeriodMs, int slowPeriodMs) {
+        statsScheduler.startAdaptive(fastPeriodMs, slowPeriodMs);
+        addStatsDeltaListener(statsScheduler);
+    }
+
+    /**
+     * Records the per-interval rates of the last |capacity| polls off the Java heap and
+     * saves them to the app's "stats_history" directory when the call is closed. Requires
+     * stats polling to be enabled.
+     */
+    public void enableStatsHistory(int capacity) {
+        final StatsHistoryRecorder recorder = new StatsHistoryRecorder(capacity);
+        final StatsHistoryRecorder previous = statsHistoryRecorder;
+        if (previous != null) {
+            removeStatsDeltaListener(previous);
+        }
+        statsHistoryRecorder = recorder;
+        addStatsDeltaListener(recorder);
+    }
+
+    /**
+     * Returns the recorder enabled by {@link #enableStatsHistory}, or null.
+     */
+    @Nullable
+    public StatsHistoryRecorder getStatsHistoryRecorder() {
+        return statsHistoryRecorder;
+    }
+
+    /**
+     * Suspends stats polling until {@link #resumeStatsEvents()}, e.g. while the call UI is
+     * in the background.
+     */
+    public void pauseStatsEvents() {
+        statsScheduler.pause();
+    }
+
+    public void resumeStatsEvents() {
+        statsScheduler.resume();
+    }
+
+    /**
+     * Enables or disables running SDP, ICE and lifecycle work ahead of pending stats
+     * polling and capture/track updates (enabled by default). Disabling it runs every call
+     * in submission order.
+     */
+    public void setPrioritizeSignaling(boolean prioritize) {
+        executor.setPrioritized(prioritize);
+    }
+
+    /**
+     * Groups local ICE candidates into batches of at most |maxCandidates|, each sent at most
+     * |windowMs| after its first candidate, and delivers them through
+     * {@link PeerConnectionEvents#onIceCandidates}. 0 means no limit of that kind; both 0
+     * (the default) delivers every candidate on its own through
+     * {@link PeerConnectionEvents#onIceCandidate}.
+     */
+    public void setIceCandidateBatching(final int windowMs, final int maxCandidates) {
+        executor.execute(TaskCategory.ICE, () -> localCandidateBatcher.configure(windowMs, maxCandidates));
+    }
+
+    /**
+     * Enables or disables latest-wins coalescing of setAudioEnabled, setVideoEnabled,
+     * setVideoMaxBitrate and changeCaptureFormat (enabled by default). When enabled, a call
+     * replaces a pending call of the same method, so rapid updates, e.g. from a slider or
+     * a bitrate controller, only apply the newest value.
+     */
+    public void setCoalesceControlUpdates(boolean coalesce) {
+        coalesceControlUpdates = coalesce;
+    }
+
     public void setAudioEnabled(final boolean enable) {
-        executor.execute(() -> {
+        executeControlUpdate(ControlUpdate.AUDIO_ENABLED, () -> {
             enableAudio = enable;
             if (localAudioTrack != null) {
                 localAudioTrack.setEnabled(enableAudio);
@@ -723,19 +1137,78 @@ public class PeerConnectionClient {
     }
 
     public void setVideoEnabled(final boolean enable) {
-        executor.execute(() -> {
+        executeControlUpdate(ControlUpdate.VIDEO_ENABLED, () -> {
             renderVideo = enable;
             if (localVideoTrack != null) {
                 localVideoTrack.setEnabled(renderVideo);
             }
-            if (remoteVideoTrack != null) {
-                remoteVideoTrack.setEnabled(renderVideo);
+            for (RemoteVideo remoteVideo : remoteVideos.values()) {
+                remoteVideo.applyEnabled(renderVideo);
+            }
+        });
+    }
+
+    /**
+     * Delivers local video frames to |tap| too, e.g. a
+     * {@link com.nhancv.webrtcpeer.rtc_plugins.FrameTap} for on-device analysis. Use a tap
+     * that never blocks, the capture thread delivers frames to it. Taps added before the
+     * local track exists are attached when it is created.
+     */
+    public void addLocalFrameTap(final VideoSink tap) {
+        executor.execute(TaskCategory.CAPTURE, () -> {
+            if (localFrameTaps.contains(tap)) {
+                return;
+            }
+            localFrameTaps.add(tap);
+            if (localVideoTrack != null) {
+                localVideoTrack.addSink(tap);
+            }
+        });
+    }
+
+    public void removeLocalFrameTap(final VideoSink tap) {
+        executor.execute(TaskCategory.CAPTURE, () -> {
+            if (localFrameTaps.remove(tap) && localVideoTrack != null) {
+                localVideoTrack.removeSink(tap);
+            }
+        });
+    }
+
+    /**
+     * Routes the remote video track |trackId| to |sink| instead of its current sinks, or to
+     * no sink if |sink| is null. The sink is kept until the track arrives if it is not known
+     * yet. Track ids are reported by {@link PeerConnectionEvents#onRemoteVideoTrackAdded}.
+     */
+    public void setRemoteVideoSink(final String trackId, @Nullable final VideoSink sink) {
+        executor.execute(TaskCategory.TRACKS, () -> {
+            RemoteVideo remoteVideo = remoteVideos.get(trackId);
+            if (remoteVideo == null) {
+                remoteVideo = new RemoteVideo();
+                remoteVideos.put(trackId, remoteVideo);
+            }
+            remoteVideo.setSinks(sink == null
+                    ? Collections.<VideoSink>emptyList() : Collections.singletonList(sink));
+        });
+    }
+
+    /**
+     * Enables or disables the remote video track |trackId|, e.g. when its participant is
+     * scrolled out of view. A disabled track delivers no frames to its sinks.
+     */
+    public void setRemoteVideoTrackEnabled(final String trackId, final boolean enabled) {
+        executor.execute(TaskCategory.TRACKS, () -> {
+            final RemoteVideo remoteVideo = remoteVideos.get(trackId);
+            if (remoteVideo == null) {
+                Timber.tag(TAG).w("No remote video track %s", trackId);
+                return;
             }
+            remoteVideo.enabled = enabled;
+            remoteVideo.applyEnabled(renderVideo);
         });
     }
 
     public void createOffer() {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.SDP, () -> {
             if (peerConnection != null && !isError) {
                 Timber.tag(TAG).d("PC Create OFFER");
                 isInitiator = true;
@@ -745,7 +1218,7 @@ public class PeerConnectionClient {
     }
 
     public void createAnswer() {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.SDP, () -> {
             if (peerConnection != null && !isError) {
                 Timber.tag(TAG).d("PC create ANSWER");
                 isInitiator = false;
@@ -755,46 +1228,66 @@ public class PeerConnectionClient {
     }
 
     public void addRemoteIceCandidate(final IceCandidate candidate) {
-        executor.execute(() -> {
-            if (peerConnection != null && !isError) {
-                if (queuedRemoteCandidates != null) {
-                    queuedRemoteCandidates.add(candidate);
-                } else {
-                    peerConnection.addIceCandidate(candidate);
-                }
+        executor.execute(TaskCategory.ICE, () -> {
+            if (peerConnection != null && !isError
+                    && remoteCandidates.add(Collections.singletonList(candidate), peerConnection::addIceCandidate) > 0) {
+                callSetupTimeline.mark(Phase.FIRST_REMOTE_CANDIDATE);
+            }
+        });
+    }
+
+    /**
+     * Adds a burst of remote candidates in a single executor task. Candidates already added
+     * to the current connection are skipped. The batch is queued as a whole if the remote
+     * description is not set yet, otherwise it is applied right away; the time applying
+     * takes is recorded in {@link #getRemoteCandidateBatchHistogram()}.
+     */
+    public void addRemoteIceCandidates(final List<IceCandidate> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        final List<IceCandidate> batch = new ArrayList<>(candidates);
+        executor.execute(TaskCategory.ICE, () -> {
+            if (peerConnection == null || isError) {
+                return;
             }
+            final boolean queuing = remoteCandidates.isQueuing();
+            final int added = remoteCandidates.add(batch, peerConnection::addIceCandidate);
+            if (added > 0) {
+                callSetupTimeline.mark(Phase.FIRST_REMOTE_CANDIDATE);
+            }
+            Timber.tag(TAG).d("%s %d of %d remote candidates", queuing ? "Queued" : "Added", added, batch.size());
         });
     }
 
+    /**
+     * Returns how long remote candidate batches took to apply to the connection. Queuing a
+     * batch before the descriptions are set is not recorded; the queued candidates are
+     * recorded as one batch when they are drained.
+     */
+    public LatencyHistogram getRemoteCandidateBatchHistogram() {
+        return remoteCandidates.getApplyHistogram();
+    }
+
     public void removeRemoteIceCandidates(final IceCandidate[] candidates) {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.ICE, () -> {
             if (peerConnection == null || isError) {
                 return;
             }
             // Drain the queued remote candidates if there is any so that
             // they are processed in the proper order.
             drainCandidates();
+            remoteCandidates.remove(candidates);
             peerConnection.removeIceCandidates(candidates);
         });
     }
 
     public void setRemoteDescription(final SessionDescription sdp) {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.SDP, () -> {
             if (peerConnection == null || isError) {
                 return;
             }
-            String sdpDescription = sdp.description;
-            if (preferIsac) {
-                sdpDescription = preferCodec(sdpDescription, AUDIO_CODEC_ISAC, true);
-            }
-            if (isVideoCallEnabled()) {
-                sdpDescription =
-                        preferCodec(sdpDescription, getSdpVideoCodecName(peerConnectionParameters), false);
-            }
-            if (peerConnectionParameters.audioStartBitrate > 0) {
-                sdpDescription = setStartBitrate(
-                        AUDIO_CODEC_OPUS, false, sdpDescription, peerConnectionParameters.audioStartBitrate);
-            }
+            String sdpDescription = remoteSdpMunger.munge(sdp.description);
             Timber.tag(TAG).d("Set remote SDP.");
             SessionDescription sdpRemote = new SessionDescription(sdp.type, sdpDescription);
             peerConnection.setRemoteDescription(sdpObserver, sdpRemote);
@@ -802,7 +1295,7 @@ public class PeerConnectionClient {
     }
 
     public void stopVideoSource() {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.CAPTURE, () -> {
             if (videoCapturer != null && !videoCapturerStopped) {
                 Timber.tag(TAG).d("Stop video source.");
                 try {
@@ -816,7 +1309,7 @@ public class PeerConnectionClient {
     }
 
     public void startVideoSource() {
-        executor.execute(() -> {
+        executor.execute(TaskCategory.CAPTURE, () -> {
             if (videoCapturer != null && videoCapturerStopped) {
                 Timber.tag(TAG).d("Restart video source.");
                 videoCapturer.startCapture(videoWidth, videoHeight, videoFps);
@@ -826,7 +1319,7 @@ public class PeerConnectionClient {
     }
 
     public void setVideoMaxBitrate(@Nullable final Integer maxBitrateKbps) {
-        executor.execute(() -> {
+        executeControlUpdate(ControlUpdate.VIDEO_MAX_BITRATE, () -> {
             if (peerConnection == null || localVideoSender == null || isError) {
                 return;
             }
@@ -840,9 +1333,15 @@ public class PeerConnectionClient {
                 Timber.tag(TAG).w("RtpParameters are not ready.");
                 return;
             }
-            for (RtpParameters.Encoding encoding : parameters.encodings) {
-                // Null value means no limit.
-                encoding.maxBitrateBps = maxBitrateKbps == null ? null : maxBitrateKbps * BPS_IN_KBPS;
+            if (peerConnectionParameters.isSimulcastEnabled()) {
+                // The cap is the budget of the whole sender, split across the layers.
+                videoMaxBitrateKbps = maxBitrateKbps;
+                applySimulcastLimits(parameters);
+            } else {
+                for (RtpParameters.Encoding encoding : parameters.encodings) {
+                    // Null value means no limit.
+                    encoding.maxBitrateBps = maxBitrateKbps == null ? null : maxBitrateKbps * BPS_IN_KBPS;
+                }
             }
             if (!localVideoSender.setParameters(parameters)) {
                 Timber.tag(TAG).e("RtpSender.setParameters failed.");
@@ -851,9 +1350,73 @@ public class PeerConnectionClient {
         });
     }
 
+    /**
+     * Starts or stops sending the simulcast layer |rid|, e.g. when no subscriber of the SFU
+     * needs it. Has no effect without simulcast.
+     */
+    public void setSimulcastLayerActive(final String rid, final boolean active) {
+        if (indexOfSimulcastLayer(rid) < 0) {
+            Timber.tag(TAG).w("No simulcast layer %s", rid);
+            return;
+        }
+        simulcastLayerActive.put(rid, active);
+        executeControlUpdate(ControlUpdate.SIMULCAST_LAYERS, () -> {
+            if (peerConnection == null || localVideoSender == null || isError) {
+                return;
+            }
+            RtpParameters parameters = localVideoSender.getParameters();
+            applySimulcastLimits(parameters);
+            if (!localVideoSender.setParameters(parameters)) {
+                Timber.tag(TAG).e("RtpSender.setParameters failed.");
+                return;
+            }
+            Timber.tag(TAG).d("Simulcast layers active: %s", simulcastLayerActive);
+        });
+    }
+
+    /**
+     * Sets the active state and bitrate limits of the simulcast encodings in |parameters|
+     * from the requested layer states and the split of |videoMaxBitrateKbps|. Layers that
+     * do not fit the budget are stopped.
+     */
+    private void applySimulcastLimits(RtpParameters parameters) {
+        final List<SimulcastLayer> layers = peerConnectionParameters.simulcastLayers;
+        final boolean[] enabled = new boolean[layers.size()];
+        for (int i = 0; i < enabled.length; i++) {
+            final Boolean layerActive = simulcastLayerActive.get(layers.get(i).rid);
+            enabled[i] = layerActive == null || layerActive;
+        }
+        final int[] caps = videoMaxBitrateKbps == null
+                ? null : SimulcastLayer.splitBitrate(layers, enabled, videoMaxBitrateKbps);
+        for (RtpParameters.Encoding encoding : parameters.encodings) {
+            final int index = indexOfSimulcastLayer(encoding.rid);
+            if (index < 0) {
+                continue;
+            }
+            encoding.active = caps == null ? enabled[index] : caps[index] > 0;
+            layers.get(index).applyLimits(encoding, caps == null || caps[index] == 0 ? null : caps[index]);
+        }
+        if (caps != null) {
+            Timber.tag(TAG).d("Simulcast split of %d kbps: %s", videoMaxBitrateKbps, Arrays.toString(caps));
+        }
+    }
+
+    private int indexOfSimulcastLayer(@Nullable String rid) {
+        if (rid == null || !peerConnectionParameters.isSimulcastEnabled()) {
+            return -1;
+        }
+        final List<SimulcastLayer> layers = peerConnectionParameters.simulcastLayers;
+        for (int i = 0; i < layers.size(); i++) {
+            if (layers.get(i).rid.equals(rid)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void reportError(final String errorMessage) {
         Timber.tag(TAG).e("Peerconnection error: %s", errorMessage);
-        executor.execute(() -> {
+        executor.execute(TaskCategory.OTHER, () -> {
             if (!isError) {
                 events.onPeerConnectionError(errorMessage);
                 isError = true;
@@ -881,6 +1444,9 @@ public class PeerConnectionClient {
         if (localRender != null) {
             localVideoTrack.addSink(localRender);
         }
+        for (VideoSink tap : localFrameTaps) {
+            localVideoTrack.addSink(tap);
+        }
         return localVideoTrack;
     }
 
@@ -899,7 +1465,8 @@ public class PeerConnectionClient {
         }
     }
 
-    // Returns the remote VideoTrack, assuming there is only one.
+    // Returns the remote VideoTrack of the first video transceiver, i.e. the one paired with
+    // the local video sender.
     private @Nullable
     VideoTrack getRemoteVideoTrack() {
         if (peerConnection != null) {
@@ -913,6 +1480,75 @@ public class PeerConnectionClient {
         return null;
     }
 
+    /**
+     * Starts routing a newly discovered remote video track. |initialSinks| are added to the
+     * sinks already routed to its id, if any.
+     */
+    private void addRemoteVideoTrack(@Nullable VideoTrack track, @Nullable List<String> streamIds,
+                                     @Nullable List<VideoSink> initialSinks) {
+        if (track == null) {
+            return;
+        }
+        final String trackId = track.id();
+        RemoteVideo remoteVideo = remoteVideos.get(trackId);
+        if (remoteVideo != null && remoteVideo.track != null) {
+            return;
+        }
+        if (remoteVideo == null) {
+            remoteVideo = new RemoteVideo();
+            remoteVideos.put(trackId, remoteVideo);
+        }
+        remoteVideo.track = track;
+        final List<VideoSink> sinks = new ArrayList<>(remoteVideo.sinks);
+        if (initialSinks != null) {
+            sinks.addAll(initialSinks);
+        }
+        remoteVideo.sinks.clear();
+        remoteVideo.setSinks(sinks);
+        remoteVideo.applyEnabled(renderVideo);
+        Timber.tag(TAG).d("Remote video track %s added, %d remote video tracks", trackId, remoteVideos.size());
+        events.onRemoteVideoTrackAdded(trackId,
+                streamIds == null ? Collections.<String>emptyList() : streamIds);
+    }
+
+    /**
+     * Stops routing the remote video tracks the last negotiation stopped receiving. The
+     * PeerConnection.Observer of WebRTC 1.0.32006 reports no track removal, so the
+     * transceivers are checked each time a description is set instead.
+     */
+    private void removeEndedRemoteVideoTracks() {
+        final Set<String> receivingTrackIds = new HashSet<>();
+        for (RtpTransceiver transceiver : peerConnection.getTransceivers()) {
+            if (transceiver.isStopped()) {
+                continue;
+            }
+            final MediaStreamTrack track = transceiver.getReceiver().track();
+            final RtpTransceiver.RtpTransceiverDirection direction = transceiver.getCurrentDirection();
+            // No current direction until the transceiver is negotiated.
+            if (track instanceof VideoTrack && (direction == null
+                    || direction == RtpTransceiver.RtpTransceiverDirection.SEND_RECV
+                    || direction == RtpTransceiver.RtpTransceiverDirection.RECV_ONLY)) {
+                receivingTrackIds.add(track.id());
+            }
+        }
+        final Iterator<Map.Entry<String, RemoteVideo>> it = remoteVideos.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, RemoteVideo> entry = it.next();
+            final RemoteVideo remoteVideo = entry.getValue();
+            // Entries without a track only hold sinks for a track not received yet.
+            if (remoteVideo.track == null || receivingTrackIds.contains(entry.getKey())) {
+                continue;
+            }
+            it.remove();
+            remoteVideo.setSinks(Collections.<VideoSink>emptyList());
+            if (remoteVideo.track == remoteVideoTrack) {
+                remoteVideoTrack = null;
+            }
+            Timber.tag(TAG).d("Remote video track %s removed", entry.getKey());
+            events.onRemoteVideoTrackRemoved(entry.getKey());
+        }
+    }
+
     private static String getSdpVideoCodecName(PeerConnectionParameters parameters) {
         switch (parameters.videoCodec) {
             case VIDEO_CODEC_VP8:
@@ -927,6 +1563,28 @@ public class PeerConnectionClient {
         }
     }
 
+    /**
+     * Returns the configured video codec, or the fastest codec that works in hardware if the
+     * hardware encoder of the configured one failed its probe on this device.
+     */
+    private String getWorkingVideoCodecName() {
+        final String codec = getSdpVideoCodecName(peerConnectionParameters);
+        if (!peerConnectionParameters.videoCodecHwAcceleration) {
+            return codec;
+        }
+        final CodecCapabilityProbe.Results probeResults =
+                PeerConnectionFactoryPool.getCodecProbeResults(appContext);
+        if (probeResults == null || !probeResults.isEncoderBroken(codec)) {
+            return codec;
+        }
+        final String fastestCodec = probeResults.getFastestCodec();
+        if (fastestCodec == null) {
+            return codec;
+        }
+        Timber.tag(TAG).w("Hardware %s encoder is broken on this device, preferring %s", codec, fastestCodec);
+        return fastestCodec;
+    }
+
     private static String getFieldTrials(PeerConnectionParameters peerConnectionParameters) {
         String fieldTrials = "";
         if (peerConnectionParameters.videoFlexfecEnabled) {
@@ -941,157 +1599,15 @@ public class PeerConnectionClient {
         return fieldTrials;
     }
 
-    @SuppressWarnings("StringSplitter")
-    private static String setStartBitrate(
-            String codec, boolean isVideoCodec, String sdpDescription, int bitrateKbps) {
-        String[] lines = sdpDescription.split("\r\n");
-        int rtpmapLineIndex = -1;
-        boolean sdpFormatUpdated = false;
-        String codecRtpMap = null;
-        // Search for codec rtpmap in format
-        // a=rtpmap:<payload type> <encoding name>/<clock rate> [/<encoding parameters>]
-        String regex = "^a=rtpmap:(\\d+) " + codec + "(/\\d+)+[\r]?$";
-        Pattern codecPattern = Pattern.compile(regex);
-        for (int i = 0; i < lines.length; i++) {
-            Matcher codecMatcher = codecPattern.matcher(lines[i]);
-            if (codecMatcher.matches()) {
-                codecRtpMap = codecMatcher.group(1);
-                rtpmapLineIndex = i;
-                break;
-            }
-        }
-        if (codecRtpMap == null) {
-            Timber.tag(TAG).w("No rtpmap for " + codec + " codec");
-            return sdpDescription;
-        }
-        Timber.tag(TAG).d("Found " + codec + " rtpmap " + codecRtpMap + " at " + lines[rtpmapLineIndex]);
-        // Check if a=fmtp string already exist in remote SDP for this codec and
-        // update it with new bitrate parameter.
-        regex = "^a=fmtp:" + codecRtpMap + " \\w+=\\d+.*[\r]?$";
-        codecPattern = Pattern.compile(regex);
-        for (int i = 0; i < lines.length; i++) {
-            Matcher codecMatcher = codecPattern.matcher(lines[i]);
-            if (codecMatcher.matches()) {
-                Timber.tag(TAG).d("Found " + codec + " " + lines[i]);
-                if (isVideoCodec) {
-                    lines[i] += "; " + VIDEO_CODEC_PARAM_START_BITRATE + "=" + bitrateKbps;
-                } else {
-                    lines[i] += "; " + AUDIO_CODEC_PARAM_BITRATE + "=" + (bitrateKbps * 1000);
-                }
-                Timber.tag(TAG).d("Update remote SDP line: " + lines[i]);
-                sdpFormatUpdated = true;
-                break;
-            }
-        }
-        StringBuilder newSdpDescription = new StringBuilder();
-        for (int i = 0; i < lines.length; i++) {
-            newSdpDescription.append(lines[i]).append("\r\n");
-            // Append new a=fmtp line if no such line exist for a codec.
-            if (!sdpFormatUpdated && i == rtpmapLineIndex) {
-                String bitrateSet;
-                if (isVideoCodec) {
-                    bitrateSet =
-                            "a=fmtp:" + codecRtpMap + " " + VIDEO_CODEC_PARAM_START_BITRATE + "=" + bitrateKbps;
-                } else {
-                    bitrateSet = "a=fmtp:" + codecRtpMap + " " + AUDIO_CODEC_PARAM_BITRATE + "="
-                            + (bitrateKbps * 1000);
-                }
-                Timber.tag(TAG).d("Add remote SDP line: " + bitrateSet);
-                newSdpDescription.append(bitrateSet).append("\r\n");
-            }
-        }
-        return newSdpDescription.toString();
-    }
-
-    /**
-     * Returns the line number containing "m=audio|video", or -1 if no such line exists.
-     */
-    private static int findMediaDescriptionLine(boolean isAudio, String[] sdpLines) {
-        final String mediaDescription = isAudio ? "m=audio " : "m=video ";
-        for (int i = 0; i < sdpLines.length; ++i) {
-            if (sdpLines[i].startsWith(mediaDescription)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
-    private static String joinString(
-            Iterable<? extends CharSequence> s, String delimiter, boolean delimiterAtEnd) {
-        Iterator<? extends CharSequence> iter = s.iterator();
-        if (!iter.hasNext()) {
-            return "";
-        }
-        StringBuilder buffer = new StringBuilder(iter.next());
-        while (iter.hasNext()) {
-            buffer.append(delimiter).append(iter.next());
-        }
-        if (delimiterAtEnd) {
-            buffer.append(delimiter);
-        }
-        return buffer.toString();
-    }
-
-    private static @Nullable
-    String movePayloadTypesToFront(
-            List<String> preferredPayloadTypes, String mLine) {
-        // The format of the media description line should be: m=<media> <port> <proto> <fmt> ...
-        final List<String> origLineParts = Arrays.asList(mLine.split(" "));
-        if (origLineParts.size() <= 3) {
-            Timber.tag(TAG).e("Wrong SDP media description format: %s", mLine);
-            return null;
-        }
-        final List<String> header = origLineParts.subList(0, 3);
-        final List<String> unpreferredPayloadTypes =
-                new ArrayList<>(origLineParts.subList(3, origLineParts.size()));
-        unpreferredPayloadTypes.removeAll(preferredPayloadTypes);
-        // Reconstruct the line with |preferredPayloadTypes| moved to the beginning of the payload
-        // types.
-        final List<String> newLineParts = new ArrayList<>();
-        newLineParts.addAll(header);
-        newLineParts.addAll(preferredPayloadTypes);
-        newLineParts.addAll(unpreferredPayloadTypes);
-        return joinString(newLineParts, " ", false /* delimiterAtEnd */);
-    }
-
-    private static String preferCodec(String sdpDescription, String codec, boolean isAudio) {
-        final String[] lines = sdpDescription.split("\r\n");
-        final int mLineIndex = findMediaDescriptionLine(isAudio, lines);
-        if (mLineIndex == -1) {
-            Timber.tag(TAG).w("No mediaDescription line, so can't prefer %s", codec);
-            return sdpDescription;
-        }
-        // A list with all the payload types with name |codec|. The payload types are integers in the
-        // range 96-127, but they are stored as strings here.
-        final List<String> codecPayloadTypes = new ArrayList<>();
-        // a=rtpmap:<payload type> <encoding name>/<clock rate> [/<encoding parameters>]
-        final Pattern codecPattern = Pattern.compile("^a=rtpmap:(\\d+) " + codec + "(/\\d+)+[\r]?$");
-        for (String line : lines) {
-            Matcher codecMatcher = codecPattern.matcher(line);
-            if (codecMatcher.matches()) {
-                codecPayloadTypes.add(codecMatcher.group(1));
-            }
-        }
-        if (codecPayloadTypes.isEmpty()) {
-            Timber.tag(TAG).w("No payload types with name %s", codec);
-            return sdpDescription;
-        }
-        final String newMLine = movePayloadTypesToFront(codecPayloadTypes, lines[mLineIndex]);
-        if (newMLine == null) {
-            return sdpDescription;
-        }
-        Timber.tag(TAG).d("Change media description from: " + lines[mLineIndex] + " to " + newMLine);
-        lines[mLineIndex] = newMLine;
-        return joinString(Arrays.asList(lines), "\r\n", true /* delimiterAtEnd */);
+    private void onLocalIceCandidates(List<IceCandidate> candidates) {
+        Timber.tag(TAG).d("Send %d local candidates", candidates.size());
+        events.onIceCandidates(candidates);
     }
 
     private void drainCandidates() {
-        if (queuedRemoteCandidates != null) {
-            Timber.tag(TAG).d("Add " + queuedRemoteCandidates.size() + " remote candidates");
-            for (IceCandidate candidate : queuedRemoteCandidates) {
-                peerConnection.addIceCandidate(candidate);
-            }
-            queuedRemoteCandidates = null;
+        final int drained = remoteCandidates.drain(peerConnection::addIceCandidate);
+        if (drained > 0) {
+            Timber.tag(TAG).d("Add " + drained + " remote candidates");
         }
     }
 
@@ -1110,11 +1626,20 @@ public class PeerConnectionClient {
     }
 
     public void switchCamera() {
-        executor.execute(this::switchCameraInternal);
+        executor.execute(TaskCategory.CAPTURE, this::switchCameraInternal);
     }
 
     public void changeCaptureFormat(final int width, final int height, final int framerate) {
-        executor.execute(() -> changeCaptureFormatInternal(width, height, framerate));
+        executeControlUpdate(ControlUpdate.CAPTURE_FORMAT,
+                () -> changeCaptureFormatInternal(width, height, framerate));
+    }
+
+    private void executeControlUpdate(ControlUpdate update, Runnable task) {
+        if (coalesceControlUpdates) {
+            executor.executeLatest(update.category, update, task);
+        } else {
+            executor.execute(update.category, task);
+        }
     }
 
     private void changeCaptureFormatInternal(int width, int height, int framerate) {
@@ -1127,16 +1652,46 @@ public class PeerConnectionClient {
         videoSource.adaptOutputFormat(width, height, framerate);
     }
 
+    /**
+     * Kinds of control update coalesced by {@link #executeControlUpdate}. Mute changes are
+     * not deferrable, so they are not held back behind SDP and ICE work; encoder and capture
+     * changes are.
+     */
+    private enum ControlUpdate {
+        AUDIO_ENABLED(TaskCategory.TRACKS),
+        VIDEO_ENABLED(TaskCategory.TRACKS),
+        VIDEO_MAX_BITRATE(TaskCategory.CAPTURE),
+        CAPTURE_FORMAT(TaskCategory.CAPTURE),
+        SIMULCAST_LAYERS(TaskCategory.CAPTURE);
+
+        final TaskCategory category;
+
+        ControlUpdate(TaskCategory category) {
+            this.category = category;
+        }
+    }
+
     // Implementation detail: observe ICE & stream changes and react accordingly.
     private class PCObserver implements PeerConnection.Observer {
         @Override
         public void onIceCandidate(final IceCandidate candidate) {
-            executor.execute(() -> events.onIceCandidate(candidate));
+            callSetupTimeline.mark(Phase.FIRST_LOCAL_CANDIDATE);
+            executor.execute(TaskCategory.ICE, () -> {
+                if (localCandidateBatcher.isEnabled()) {
+                    localCandidateBatcher.add(candidate);
+                } else {
+                    events.onIceCandidate(candidate);
+                }
+            });
         }
 
         @Override
         public void onIceCandidatesRemoved(final IceCandidate[] candidates) {
-            executor.execute(() -> events.onIceCandidatesRemoved(candidates));
+            executor.execute(TaskCategory.ICE, () -> {
+                // Signal pending candidates first so the removal does not overtake them.
+                localCandidateBatcher.flush();
+                events.onIceCandidatesRemoved(candidates);
+            });
         }
 
         @Override
@@ -1146,9 +1701,14 @@ public class PeerConnectionClient {
 
         @Override
         public void onIceConnectionChange(final PeerConnection.IceConnectionState newState) {
-            executor.execute(() -> {
+            executor.execute(TaskCategory.ICE, () -> {
                 Timber.tag(TAG).d("IceConnectionState: %s", newState);
+                if (newState != IceConnectionState.CONNECTED
+                        && newState != IceConnectionState.COMPLETED) {
+                    statsScheduler.markUnstable();
+                }
                 if (newState == IceConnectionState.CONNECTED) {
+                    callSetupTimeline.mark(Phase.ICE_CONNECTED);
                     events.onIceConnected();
                 } else if (newState == IceConnectionState.DISCONNECTED) {
                     events.onIceDisconnected();
@@ -1160,9 +1720,12 @@ public class PeerConnectionClient {
 
         @Override
         public void onConnectionChange(final PeerConnection.PeerConnectionState newState) {
-            executor.execute(() -> {
+            executor.execute(TaskCategory.ICE, () -> {
                 Timber.tag(TAG).d("PeerConnectionState: %s", newState);
                 if (newState == PeerConnectionState.CONNECTED) {
+                    if (callSetupTimeline.mark(Phase.DTLS_CONNECTED)) {
+                        Timber.tag(TAG).d("Call setup: %s", callSetupTimeline);
+                    }
                     events.onConnected();
                 } else if (newState == PeerConnectionState.DISCONNECTED) {
                     events.onDisconnected();
@@ -1175,6 +1738,9 @@ public class PeerConnectionClient {
         @Override
         public void onIceGatheringChange(PeerConnection.IceGatheringState newState) {
             Timber.tag(TAG).d("IceGatheringState: %s", newState);
+            if (newState == PeerConnection.IceGatheringState.COMPLETE) {
+                executor.execute(TaskCategory.ICE, localCandidateBatcher::flush);
+            }
         }
 
         @Override
@@ -1235,6 +1801,56 @@ public class PeerConnectionClient {
 
         @Override
         public void onAddTrack(final RtpReceiver receiver, final MediaStream[] mediaStreams) {
+            final MediaStreamTrack track = receiver.track();
+            if (!(track instanceof VideoTrack)) {
+                return;
+            }
+            final List<String> streamIds = new ArrayList<>(mediaStreams.length);
+            for (MediaStream stream : mediaStreams) {
+                streamIds.add(stream.getId());
+            }
+            executor.execute(TaskCategory.TRACKS, () -> {
+                if (peerConnection == null || isError) {
+                    return;
+                }
+                if (remoteVideoTrack == null) {
+                    // No video sent: the first received track takes the sinks of
+                    // createPeerConnection.
+                    remoteVideoTrack = (VideoTrack) track;
+                    addRemoteVideoTrack(remoteVideoTrack, streamIds, remoteSinks);
+                } else {
+                    addRemoteVideoTrack((VideoTrack) track, streamIds, null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Routing state of one remote video track, only accessed on the executor.
+     */
+    private static final class RemoteVideo {
+        @Nullable
+        private VideoTrack track;
+        private final List<VideoSink> sinks = new ArrayList<>();
+        private boolean enabled = true;
+
+        void setSinks(List<VideoSink> newSinks) {
+            if (track != null) {
+                for (VideoSink sink : sinks) {
+                    track.removeSink(sink);
+                }
+                for (VideoSink sink : newSinks) {
+                    track.addSink(sink);
+                }
+            }
+            sinks.clear();
+            sinks.addAll(newSinks);
+        }
+
+        void applyEnabled(boolean renderVideo) {
+            if (track != null) {
+                track.setEnabled(renderVideo && enabled);
+            }
         }
     }
 
@@ -1247,17 +1863,11 @@ public class PeerConnectionClient {
                 reportError("Multiple SDP create.");
                 return;
             }
-            String sdpDescription = origSdp.description;
-            if (preferIsac) {
-                sdpDescription = preferCodec(sdpDescription, AUDIO_CODEC_ISAC, true);
-            }
-            if (isVideoCallEnabled()) {
-                sdpDescription =
-                        preferCodec(sdpDescription, getSdpVideoCodecName(peerConnectionParameters), false);
-            }
+            callSetupTimeline.mark(Phase.LOCAL_SDP_CREATED);
+            String sdpDescription = localSdpMunger.munge(origSdp.description);
             final SessionDescription sdp = new SessionDescription(origSdp.type, sdpDescription);
             localSdp = sdp;
-            executor.execute(() -> {
+            executor.execute(TaskCategory.SDP, () -> {
                 if (peerConnection != null && !isError) {
                     Timber.tag(TAG).d("Set local SDP from %s", sdp.type);
                     peerConnection.setLocalDescription(sdpObserver, sdp);
@@ -1267,20 +1877,23 @@ public class PeerConnectionClient {
 
         @Override
         public void onSetSuccess() {
-            executor.execute(() -> {
+            executor.execute(TaskCategory.SDP, () -> {
                 if (peerConnection == null || isError) {
                     return;
                 }
+                removeEndedRemoteVideoTracks();
                 if (isInitiator) {
                     // For offering peer connection we first create offer and set
                     // local SDP, then after receiving answer set remote SDP.
                     if (peerConnection.getRemoteDescription() == null) {
                         // We've just set our local SDP so time to send it.
+                        callSetupTimeline.mark(Phase.LOCAL_SDP_SET);
                         Timber.tag(TAG).d("Local SDP set succesfully");
                         events.onLocalDescription(localSdp);
                     } else {
                         // We've just set remote description, so drain remote
                         // and send local ICE candidates.
+                        callSetupTimeline.mark(Phase.REMOTE_SDP_SET);
                         Timber.tag(TAG).d("Remote SDP set succesfully");
                         drainCandidates();
                     }
@@ -1290,12 +1903,14 @@ public class PeerConnectionClient {
                     if (peerConnection.getLocalDescription() != null) {
                         // We've just set our local SDP so time to send it, drain
                         // remote and send local ICE candidates.
+                        callSetupTimeline.mark(Phase.LOCAL_SDP_SET);
                         Timber.tag(TAG).d("Local SDP set succesfully");
                         events.onLocalDescription(localSdp);
                         drainCandidates();
                     } else {
                         // We've just set remote SDP - do nothing for now -
                         // answer will be created soon.
+                        callSetupTimeline.mark(Phase.REMOTE_SDP_SET);
                         Timber.tag(TAG).d("Remote SDP set succesfully");
                     }
                 }
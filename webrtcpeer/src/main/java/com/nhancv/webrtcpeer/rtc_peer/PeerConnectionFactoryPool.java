@@ -0,0 +1,413 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import android.content.Context;
+
+import org.webrtc.DefaultVideoDecoderFactory;
+import org.webrtc.DefaultVideoEncoderFactory;
+import org.webrtc.EglBase;
+import org.webrtc.PeerConnectionFactory;
+import org.webrtc.VideoDecoderFactory;
+import org.webrtc.VideoEncoderFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * PeerConnectionFactoryPool
+ * <p>
+ * Description: Process-wide, reference-counted holder of initialized PeerConnectionFactory
+ * instances, so that back-to-back and concurrent calls reuse one factory with its codec
+ * factories and audio device module instead of paying native initialization every call.
+ * <p>
+ * Factories are keyed by the configuration they were built with; clients acquire a
+ * {@link Lease} and release it when their call ends. A factory whose last lease is released
+ * is kept for {@link #setKeepAliveMs keep-alive} ms in case the next call follows shortly,
+ * then disposed. Hardware codec factories are bound to the pool's {@link #getEglBase() EGL
+ * context}, which lives as long as the process, so renderers must use that context too.
+ * <p>
+ * Pooled factories are built and disposed on the pool's own thread, whichever client lane
+ * acquires or releases them, so a new factory is always created on the same thread as the
+ * previously disposed one. Process-wide debug outputs that several calls may ask for, the
+ * internal trace capture and the AEC dump of a shared factory, are owned through the pool
+ * so one call ending does not stop another call's output.
+ * <p>
+ * {@link #warmUp} does the expensive part of the first factory build, i.e. native library
+ * load, WebRTC initialization, EGL context creation and hardware codec enumeration, on a
+ * background thread ahead of the first call. It also probes the hardware codecs once per
+ * firmware build, see {@link CodecCapabilityProbe}.
+ */
+public final class PeerConnectionFactoryPool {
+    private static final String TAG = "PCFactoryPool";
+    public static final long DEFAULT_KEEP_ALIVE_MS = 30_000;
+
+    // Builds and disposes the pooled factories and runs their keep-alive timers.
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "PCFactoryPool");
+                thread.setDaemon(true);
+                return thread;
+            });
+    // Runs warm-up, which must not hold up the factory builds on |TIMER|.
+    private static final ExecutorService WARM_UP =
+            Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "PCFactoryWarmUp");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static final Object eglBaseLock = new Object();
+    @Nullable
+    private static EglBase eglBase;
+    @Nullable
+    private static String initializedFieldTrials;
+    private static long keepAliveMs = DEFAULT_KEEP_ALIVE_MS;
+    // Hardware codec factories bound to |eglBase|, indexed by H264 high profile support.
+    private static final VideoEncoderFactory[] hardwareEncoderFactories = new VideoEncoderFactory[2];
+    @Nullable
+    private static VideoDecoderFactory hardwareDecoderFactory;
+    // Published whole by warm-up, read without the pool lock.
+    @Nullable
+    private static volatile CodecCapabilityProbe.Results codecProbeResults;
+    private static int tracingClients;
+
+    private PeerConnectionFactoryPool() {
+    }
+
+    /**
+     * Builds a factory for a key the pool has no factory for yet. Audio device errors of the
+     * built factory must go to |audioErrorListener|, which forwards them to every client
+     * holding a lease on it.
+     */
+    public interface FactoryBuilder {
+        PeerConnectionFactory build(AudioErrorListener audioErrorListener);
+    }
+
+    public interface AudioErrorListener {
+        void onAudioDeviceError(String description);
+    }
+
+    /**
+     * Initializes WebRTC with |fieldTrials|. Only the first call, or a call with different
+     * field trials, reaches native code. Field trials are process-wide, so factories built
+     * before a change keep running with the old ones.
+     */
+    public static synchronized void initialize(Context appContext, String fieldTrials) {
+        if (fieldTrials.equals(initializedFieldTrials)) {
+            return;
+        }
+        if (initializedFieldTrials != null) {
+            Timber.tag(TAG).w("Field trials changed from %s to %s", initializedFieldTrials, fieldTrials);
+        }
+        Timber.tag(TAG).d("Initialize WebRTC. Field trials: %s", fieldTrials);
+        PeerConnectionFactory.initialize(
+                PeerConnectionFactory.InitializationOptions.builder(appContext)
+                        .setFieldTrials(fieldTrials)
+                        .setEnableInternalTracer(true)
+                        .createInitializationOptions());
+        initializedFieldTrials = fieldTrials;
+    }
+
+    /**
+     * Starts initializing WebRTC with |fieldTrials| and preparing the hardware codec
+     * factories on a background thread. A client that needs WebRTC initialized while
+     * warm-up initializes it waits for it instead of doing the work twice. The codec probe
+     * that follows runs without holding the pool lock, so clients created meanwhile are not
+     * blocked by it; they just find no probe results yet. The returned future completes
+     * when warm-up, including the probe, is done.
+     */
+    public static Future<?> warmUp(Context appContext, String fieldTrials, boolean h264HighProfile) {
+        final Context context = appContext.getApplicationContext();
+        return WARM_UP.submit(() -> {
+            final long startNs = System.nanoTime();
+            final VideoEncoderFactory encoderFactory;
+            final VideoDecoderFactory decoderFactory;
+            synchronized (PeerConnectionFactoryPool.class) {
+                initialize(context, fieldTrials);
+                encoderFactory = getHardwareEncoderFactory(h264HighProfile);
+                decoderFactory = getHardwareDecoderFactory();
+            }
+            // Enumerating MediaCodecs is slow the first time; the platform caches the list.
+            encoderFactory.getSupportedCodecs();
+            decoderFactory.getSupportedCodecs();
+            Timber.tag(TAG).d("Initialized in %d ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+            // Starts every hardware codec on a fresh firmware build, which can take seconds.
+            codecProbeResults = CodecCapabilityProbe.loadOrProbe(context, getEglBase().getEglBaseContext());
+            Timber.tag(TAG).d("Warm-up done in %d ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+        });
+    }
+
+    /**
+     * Returns the hardware codec probe results of warm-up, or the ones cached on disk by an
+     * earlier warm-up on this firmware build. Returns null if the codecs were never probed;
+     * this never probes itself.
+     */
+    @Nullable
+    public static CodecCapabilityProbe.Results getCodecProbeResults(Context appContext) {
+        if (codecProbeResults == null) {
+            final CodecCapabilityProbe.Results cached = CodecCapabilityProbe.loadCached(appContext);
+            synchronized (PeerConnectionFactoryPool.class) {
+                // Warm-up may have published fresher results meanwhile.
+                if (codecProbeResults == null) {
+                    codecProbeResults = cached;
+                }
+            }
+        }
+        return codecProbeResults;
+    }
+
+    /**
+     * Returns the hardware accelerated encoder factory bound to {@link #getEglBase()}.
+     */
+    public static synchronized VideoEncoderFactory getHardwareEncoderFactory(boolean h264HighProfile) {
+        final int index = h264HighProfile ? 1 : 0;
+        if (hardwareEncoderFactories[index] == null) {
+            hardwareEncoderFactories[index] = new DefaultVideoEncoderFactory(
+                    getEglBase().getEglBaseContext(), true /* enableIntelVp8Encoder */, h264HighProfile);
+        }
+        return hardwareEncoderFactories[index];
+    }
+
+    /**
+     * Returns the hardware accelerated decoder factory bound to {@link #getEglBase()}.
+     */
+    public static synchronized VideoDecoderFactory getHardwareDecoderFactory() {
+        if (hardwareDecoderFactory == null) {
+            hardwareDecoderFactory = new DefaultVideoDecoderFactory(getEglBase().getEglBaseContext());
+        }
+        return hardwareDecoderFactory;
+    }
+
+    /**
+     * Returns the EGL context shared by pooled factories, creating it on first use. Guarded
+     * by its own lock, so callers on the main thread never wait for a factory build.
+     */
+    public static EglBase getEglBase() {
+        synchronized (eglBaseLock) {
+            if (eglBase == null) {
+                eglBase = EglBase.create();
+            }
+            return eglBase;
+        }
+    }
+
+    /**
+     * Sets how long a factory without leases is kept before it is disposed. 0 disposes it
+     * as soon as its last lease is released.
+     */
+    public static synchronized void setKeepAliveMs(long keepAliveMs) {
+        PeerConnectionFactoryPool.keepAliveMs = keepAliveMs;
+    }
+
+    /**
+     * Starts the process-wide internal trace capture into |filePath|, unless a pooled client
+     * started it already. Every call must be balanced by {@link #stopTracing()}; the capture
+     * stops when the last client stops tracing.
+     */
+    public static synchronized void startTracing(String filePath) {
+        if (tracingClients++ == 0) {
+            PeerConnectionFactory.startInternalTracingCapture(filePath);
+        }
+    }
+
+    public static synchronized void stopTracing() {
+        if (tracingClients == 0) {
+            return;
+        }
+        if (--tracingClients == 0) {
+            PeerConnectionFactory.stopInternalTracingCapture();
+        }
+    }
+
+    /**
+     * Returns a lease on the factory for |key|, building it with |builder| on the pool's
+     * thread if the pool has none. Blocks until the factory is ready. Audio device errors of
+     * the factory are reported to |audioErrorListener| until the lease is released.
+     */
+    public static Lease acquire(
+            final String key, final FactoryBuilder builder, final AudioErrorListener audioErrorListener) {
+        return callOnFactoryThread(() -> acquireInternal(key, builder, audioErrorListener));
+    }
+
+    /**
+     * Runs |task| on the pool's thread and waits for its result. Clients that own their
+     * factory build and dispose it through here too, so every factory of the process is
+     * created and disposed on one thread, whichever lane the client runs on.
+     */
+    static <T> T callOnFactoryThread(Callable<T> task) {
+        try {
+            return TIMER.submit(task).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Factory task failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the factory thread", e);
+        }
+    }
+
+    static void runOnFactoryThread(Runnable task) {
+        callOnFactoryThread(Executors.callable(task));
+    }
+
+    private static synchronized Lease acquireInternal(
+            String key, FactoryBuilder builder, AudioErrorListener audioErrorListener) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            final long startNs = System.nanoTime();
+            entry = new Entry(key);
+            entry.factory = builder.build(entry);
+            entries.put(key, entry);
+            Timber.tag(TAG).d("Built factory %s in %d ms", key,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+        } else {
+            Timber.tag(TAG).d("Reusing factory %s, %d leases", key, entry.leases);
+        }
+        if (entry.pendingDisposal != null) {
+            entry.pendingDisposal.cancel(false);
+            entry.pendingDisposal = null;
+        }
+        entry.leases++;
+        entry.audioErrorListeners.add(audioErrorListener);
+        return new Lease(entry, audioErrorListener);
+    }
+
+    /**
+     * Disposes every factory that has no leases now, without waiting for the keep-alive.
+     */
+    public static synchronized void trim() {
+        for (Entry entry : entries.values().toArray(new Entry[0])) {
+            if (entry.leases == 0) {
+                dispose(entry);
+            }
+        }
+    }
+
+    private static synchronized void release(Lease lease) {
+        final Entry entry = lease.entry;
+        entry.audioErrorListeners.remove(lease.audioErrorListener);
+        lease.stopAecDump();
+        if (--entry.leases > 0) {
+            return;
+        }
+        if (keepAliveMs <= 0) {
+            dispose(entry);
+            return;
+        }
+        entry.pendingDisposal = TIMER.schedule(() -> {
+            synchronized (PeerConnectionFactoryPool.class) {
+                if (entry.leases == 0 && entries.get(entry.key) == entry) {
+                    dispose(entry);
+                }
+            }
+        }, keepAliveMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Must be called with the class lock held. The factory is disposed on the pool's thread,
+    // before any factory acquired afterwards is built.
+    private static void dispose(Entry entry) {
+        if (entry.pendingDisposal != null) {
+            entry.pendingDisposal.cancel(false);
+            entry.pendingDisposal = null;
+        }
+        entries.remove(entry.key);
+        final PeerConnectionFactory factory = entry.factory;
+        TIMER.execute(() -> {
+            Timber.tag(TAG).d("Disposing idle factory %s", entry.key);
+            factory.dispose();
+        });
+    }
+
+    /**
+     * Use of a pooled factory by one client. Releasing a lease more than once has no effect.
+     */
+    public static final class Lease {
+        private final Entry entry;
+        private final AudioErrorListener audioErrorListener;
+        private boolean released;
+
+        private Lease(Entry entry, AudioErrorListener audioErrorListener) {
+            this.entry = entry;
+            this.audioErrorListener = audioErrorListener;
+        }
+
+        public PeerConnectionFactory getFactory() {
+            return entry.factory;
+        }
+
+        /**
+         * Starts an AEC dump of the shared factory into |fileDescriptor|. The factory has one
+         * dump at a time, so this replaces the dump of any other lease.
+         */
+        public void startAecDump(int fileDescriptor, int fileSizeLimitBytes) {
+            synchronized (PeerConnectionFactoryPool.class) {
+                if (released) {
+                    return;
+                }
+                entry.factory.startAecDump(fileDescriptor, fileSizeLimitBytes);
+                entry.aecDumpOwner = this;
+            }
+        }
+
+        /**
+         * Stops the AEC dump of the shared factory if this lease started the running one.
+         */
+        public void stopAecDump() {
+            synchronized (PeerConnectionFactoryPool.class) {
+                if (entry.aecDumpOwner == this) {
+                    entry.factory.stopAecDump();
+                    entry.aecDumpOwner = null;
+                }
+            }
+        }
+
+        public void release() {
+            synchronized (PeerConnectionFactoryPool.class) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                PeerConnectionFactoryPool.release(this);
+            }
+        }
+    }
+
+    private static final class Entry implements AudioErrorListener {
+        private final String key;
+        private final List<AudioErrorListener> audioErrorListeners = new CopyOnWriteArrayList<>();
+        private PeerConnectionFactory factory;
+        // Guarded by the class lock.
+        private int leases;
+        @Nullable
+        private ScheduledFuture<?> pendingDisposal;
+        // Lease whose AEC dump is running, if any.
+        @Nullable
+        private Lease aecDumpOwner;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onAudioDeviceError(String description) {
+            for (AudioErrorListener listener : audioErrorListeners) {
+                listener.onAudioDeviceError(description);
+            }
+        }
+    }
+}
@@ -13,6 +13,8 @@ package com.nhancv.webrtcpeer.rtc_peer;
 import org.webrtc.IceCandidate;
 import org.webrtc.SessionDescription;
 
+import java.util.List;
+
 /**
  * AppRTCClient is the interface representing an AppRTC client.
  */
@@ -33,6 +35,17 @@ public interface RTCClient {
      */
     void sendLocalIceCandidate(final IceCandidate candidate);
 
+    /**
+     * Send a batch of Ice candidates to the other participant. Clients whose signaling
+     * supports it should send the batch as one message; by default each candidate is sent
+     * on its own.
+     */
+    default void sendLocalIceCandidates(final List<IceCandidate> candidates) {
+        for (IceCandidate candidate : candidates) {
+            sendLocalIceCandidate(candidate);
+        }
+    }
+
     /**
      * Send removed ICE candidates to the other participant.
      */
@@ -0,0 +1,118 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import com.nhancv.webrtcpeer.rtc_util.metrics.LatencyHistogram;
+
+import org.webrtc.IceCandidate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.Nullable;
+
+/**
+ * RemoteIceCandidateQueue
+ * <p>
+ * Description: Remote ICE candidates of one peer connection. Candidates already added to
+ * the connection are dropped, and candidates are held back until both descriptions are set,
+ * then applied in arrival order. Only applying candidates is timed: a burst queued early
+ * and drained later is recorded once, when it is drained.
+ * <p>
+ * Not thread safe: used on the executor of its client.
+ */
+final class RemoteIceCandidateQueue {
+    interface Target {
+        void addIceCandidate(IceCandidate candidate);
+    }
+
+    // Keys of the candidates added or queued on the current connection.
+    private final Set<String> keys = new HashSet<>();
+    private final LatencyHistogram applyHistogram = new LatencyHistogram();
+    @Nullable
+    private List<IceCandidate> queued;
+
+    /**
+     * Starts over for a new connection: forgets the candidates seen so far and queues
+     * candidates until {@link #drain}.
+     */
+    void reset() {
+        keys.clear();
+        queued = new ArrayList<>();
+    }
+
+    boolean isQueuing() {
+        return queued != null;
+    }
+
+    /**
+     * Queues the candidates of |batch| not seen before on this connection, or applies them
+     * to |target| if the queue was drained already.
+     *
+     * @return the number of new candidates
+     */
+    int add(List<IceCandidate> batch, Target target) {
+        final List<IceCandidate> fresh = new ArrayList<>(batch.size());
+        for (IceCandidate candidate : batch) {
+            if (keys.add(key(candidate))) {
+                fresh.add(candidate);
+            }
+        }
+        if (queued != null) {
+            queued.addAll(fresh);
+        } else {
+            apply(fresh, target);
+        }
+        return fresh.size();
+    }
+
+    /**
+     * Applies the queued candidates to |target|. Candidates added afterwards are applied
+     * right away.
+     *
+     * @return the number of candidates applied
+     */
+    int drain(Target target) {
+        if (queued == null) {
+            return 0;
+        }
+        final List<IceCandidate> candidates = queued;
+        queued = null;
+        apply(candidates, target);
+        return candidates.size();
+    }
+
+    /**
+     * Forgets |candidates|, so they are added again if the remote peer sends them again.
+     */
+    void remove(IceCandidate[] candidates) {
+        for (IceCandidate candidate : candidates) {
+            keys.remove(key(candidate));
+        }
+    }
+
+    /**
+     * Returns how long applying candidate batches to the connection took.
+     */
+    LatencyHistogram getApplyHistogram() {
+        return applyHistogram;
+    }
+
+    private void apply(List<IceCandidate> candidates, Target target) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        final long startNs = System.nanoTime();
+        for (IceCandidate candidate : candidates) {
+            target.addIceCandidate(candidate);
+        }
+        applyHistogram.record(System.nanoTime() - startNs);
+    }
+
+    /**
+     * Candidates are compared by m-line and candidate attribute; the server url is ignored.
+     */
+    private static String key(IceCandidate candidate) {
+        return candidate.sdpMid + "/" + candidate.sdpMLineIndex + "/" + candidate.sdp;
+    }
+}
@@ -3,6 +3,8 @@ package com.nhancv.webrtcpeer.rtc_peer;
 import org.webrtc.IceCandidate;
 import org.webrtc.SessionDescription;
 
+import java.util.List;
+
 /**
  * Created by nhancao on 7/19/17.
  */
@@ -24,6 +26,18 @@ public interface SignalingEvents {
      */
     void onRemoteIceCandidate(final IceCandidate candidate);
 
+    /**
+     * Callback fired once a burst of remote Ice candidates is received in one signaling
+     * message. Implementations should hand the whole list to
+     * PeerConnectionClient.addRemoteIceCandidates; by default each candidate is delivered
+     * to {@link #onRemoteIceCandidate}.
+     */
+    default void onRemoteIceCandidates(final List<IceCandidate> candidates) {
+        for (IceCandidate candidate : candidates) {
+            onRemoteIceCandidate(candidate);
+        }
+    }
+
     /**
      * Callback fired once remote Ice candidate removals are received.
      */
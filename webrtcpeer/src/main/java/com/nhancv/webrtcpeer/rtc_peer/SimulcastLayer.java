@@ -0,0 +1,100 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.webrtc.RtpParameters;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SimulcastLayer
+ * <p>
+ * Description: One encoding of a simulcast video sender, identified by its RID. The layer
+ * is sent at the capture resolution divided by |scaleResolutionDownBy|; 0 for
+ * |maxBitrateKbps| or |maxFramerate| means no limit of that kind.
+ * <p>
+ * The hardware encoders of WebRTC 1.0.32006 can not simulcast, so layers, their limits and
+ * their active state only take effect with the software VP8 encoder, i.e. with hardware
+ * acceleration disabled.
+ */
+public final class SimulcastLayer {
+    public final String rid;
+    public final double scaleResolutionDownBy;
+    public final int maxBitrateKbps;
+    public final int maxFramerate;
+
+    public SimulcastLayer(String rid, double scaleResolutionDownBy, int maxBitrateKbps, int maxFramerate) {
+        if (scaleResolutionDownBy < 1) {
+            throw new IllegalArgumentException("Layer " + rid + " can not be scaled up by "
+                    + scaleResolutionDownBy);
+        }
+        this.rid = rid;
+        this.scaleResolutionDownBy = scaleResolutionDownBy;
+        this.maxBitrateKbps = maxBitrateKbps;
+        this.maxFramerate = maxFramerate;
+    }
+
+    /**
+     * Returns the usual three layers: quarter, half and full resolution.
+     */
+    public static List<SimulcastLayer> defaultLayers() {
+        return Collections.unmodifiableList(Arrays.asList(
+                new SimulcastLayer("q", 4, 150, 15),
+                new SimulcastLayer("h", 2, 500, 0),
+                new SimulcastLayer("f", 1, 1500, 0)));
+    }
+
+    RtpParameters.Encoding toEncoding() {
+        final RtpParameters.Encoding encoding = new RtpParameters.Encoding(rid, true, scaleResolutionDownBy);
+        applyLimits(encoding, null);
+        return encoding;
+    }
+
+    /**
+     * Sets the bitrate and framerate limits of |encoding|, with the bitrate limit lowered to
+     * |maxBitrateKbpsCap| if that is lower. A null cap leaves the layer's own limit.
+     */
+    void applyLimits(RtpParameters.Encoding encoding, Integer maxBitrateKbpsCap) {
+        int limitKbps = maxBitrateKbps;
+        if (maxBitrateKbpsCap != null && (limitKbps == 0 || maxBitrateKbpsCap < limitKbps)) {
+            limitKbps = maxBitrateKbpsCap;
+        }
+        // Null means no limit.
+        encoding.maxBitrateBps = limitKbps > 0 ? limitKbps * 1000 : null;
+        encoding.maxFramerate = maxFramerate > 0 ? maxFramerate : null;
+    }
+
+    /**
+     * Splits a total video budget of |totalKbps| across |layers|, lowest resolution first:
+     * each enabled layer gets up to its own limit from what the layers below it left. A
+     * layer left with less than half its own limit would be starved, so it and every layer
+     * above it are dropped. The lowest enabled layer is always kept.
+     *
+     * @param enabled whether each layer is wanted at all, by index
+     * @return the bitrate cap in kbps of each layer, by index; 0 for a layer that is
+     * disabled or does not fit and should not be sent
+     */
+    static int[] splitBitrate(List<SimulcastLayer> layers, boolean[] enabled, int totalKbps) {
+        final int[] caps = new int[layers.size()];
+        int remainingKbps = totalKbps;
+        boolean first = true;
+        for (int i = 0; i < caps.length; i++) {
+            if (!enabled[i]) {
+                continue;
+            }
+            final int limitKbps = layers.get(i).maxBitrateKbps;
+            if (remainingKbps <= 0 || (!first && limitKbps > 0 && remainingKbps * 2 < limitKbps)) {
+                break;
+            }
+            caps[i] = limitKbps > 0 ? Math.min(limitKbps, remainingKbps) : remainingKbps;
+            remainingKbps -= caps[i];
+            first = false;
+        }
+        return caps;
+    }
+
+    @Override
+    public String toString() {
+        return rid + "(/" + scaleResolutionDownBy + ", " + maxBitrateKbps + "kbps, " + maxFramerate + "fps)";
+    }
+}
@@ -0,0 +1,147 @@
+package com.nhancv.webrtcpeer.rtc_peer.executor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ExecutionModel
+ * <p>
+ * Description: Decides which thread runs the serialized task lane of each
+ * PeerConnectionClient. Tasks of one client always run in submission order, whatever
+ * the model; the model only decides which clients share a thread and can therefore
+ * delay each other.
+ * <p>
+ * Lanes never create or dispose a PeerConnectionFactory themselves: WebRTC initialization,
+ * factory builds and disposals, pooled or not, run on the factory thread of
+ * PeerConnectionFactoryPool, because native code requires a factory to be created on the
+ * thread the previous one was disposed on. Any model can therefore be used with any
+ * PeerConnectionClient constructor.
+ */
+public abstract class ExecutionModel {
+    private static final ExecutionModel SHARED = new Shared();
+
+    /**
+     * One thread for every client in the process. A slow task of one client, e.g. a
+     * camera stopCapture() on close, delays all other clients.
+     */
+    public static ExecutionModel shared() {
+        return SHARED;
+    }
+
+    /**
+     * A dedicated thread per client, stopped once the client is closed.
+     */
+    public static ExecutionModel perClient() {
+        return new PerClient();
+    }
+
+    /**
+     * A fixed set of |stripes| threads; clients are assigned round-robin, so only clients
+     * on the same stripe can delay each other. The threads live until {@link #shutdown()},
+     * so keep one striped model for the process, or shut it down once its clients are
+     * closed.
+     */
+    public static ExecutionModel striped(int stripes) {
+        return new Striped(stripes);
+    }
+
+    /**
+     * Creates the serialized task lane of a new client.
+     */
+    public PeerConnectionExecutor newExecutor() {
+        return new PeerConnectionExecutor(this, acquire());
+    }
+
+    /**
+     * Stops the threads owned by this model once their queued tasks have run. Clients
+     * created from this model afterwards can not be created, and tasks still posted by
+     * existing clients are dropped. Has no effect on {@link #shared()}, whose thread lives
+     * as long as the process, nor on {@link #perClient()}, whose threads stop with their
+     * client.
+     */
+    public void shutdown() {
+    }
+
+    abstract ExecutorService acquire();
+
+    abstract void release(ExecutorService executor);
+
+    private static ThreadFactory threadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, name + "-" + count.incrementAndGet());
+            }
+        };
+    }
+
+    private static class Shared extends ExecutionModel {
+        // Executor thread is started once and is used for all peer connection API calls.
+        private final ExecutorService executor =
+                Executors.newSingleThreadExecutor(threadFactory("PCExecutor"));
+
+        @Override
+        ExecutorService acquire() {
+            return executor;
+        }
+
+        @Override
+        void release(ExecutorService executor) {
+        }
+    }
+
+    private static class PerClient extends ExecutionModel {
+        private final ThreadFactory threadFactory = threadFactory("PCExecutor-client");
+
+        @Override
+        ExecutorService acquire() {
+            return Executors.newSingleThreadExecutor(threadFactory);
+        }
+
+        @Override
+        void release(ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private static class Striped extends ExecutionModel {
+        private final ExecutorService[] stripes;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Striped(int stripes) {
+            if (stripes <= 0) {
+                throw new IllegalArgumentException("Stripe count should be positive: " + stripes);
+            }
+            ThreadFactory threadFactory = threadFactory("PCExecutor-stripe");
+            this.stripes = new ExecutorService[stripes];
+            for (int i = 0; i < stripes; i++) {
+                this.stripes[i] = Executors.newSingleThreadExecutor(threadFactory);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            for (ExecutorService stripe : stripes) {
+                stripe.shutdown();
+            }
+        }
+
+        @Override
+        ExecutorService acquire() {
+            final ExecutorService stripe =
+                    stripes[(next.getAndIncrement() & Integer.MAX_VALUE) % stripes.length];
+            if (stripe.isShutdown()) {
+                throw new IllegalStateException("Striped execution model is shut down");
+            }
+            return stripe;
+        }
+
+        @Override
+        void release(ExecutorService executor) {
+        }
+    }
+}
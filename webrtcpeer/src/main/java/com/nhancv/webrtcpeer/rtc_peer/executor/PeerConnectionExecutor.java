@@ -0,0 +1,259 @@
+package com.nhancv.webrtcpeer.rtc_peer.executor;
+
+import com.nhancv.webrtcpeer.rtc_util.metrics.ExecutorMetrics;
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import timber.log.Timber;
+
+/**
+ * PeerConnectionExecutor
+ * <p>
+ * Description: Serialized task lane of one PeerConnectionClient. Tasks run one at a time,
+ * in submission order within their priority (see below), on the thread given by the
+ * {@link ExecutionModel}. When several lanes share a thread, a lane yields the thread
+ * after a bounded batch of tasks so that one busy client can not starve the others. Queue
+ * depth and per category wait/run times of the lane are available from
+ * {@link #getMetrics()}.
+ * <p>
+ * Control-plane setters can be posted with {@link #executeLatest}: a pending update of
+ * the same kind is replaced in place, so only the newest value reaches native code.
+ * <p>
+ * {@link TaskCategory#STATS} and {@link TaskCategory#CAPTURE} tasks are deferrable: with
+ * prioritization on, they wait in a separate queue and only run when no other task is
+ * pending, so SDP and ICE work is never stuck behind stats polling or capture changes.
+ * Deferrable tasks keep their order among themselves, as do all other tasks, and a
+ * deferrable task is not overtaken more than {@link #MAX_OVERTAKES} times in a row.
+ */
+public class PeerConnectionExecutor implements Executor {
+    private static final String TAG = "PCExecutor";
+    // Max tasks run per turn before the lane yields its thread to other lanes.
+    private static final int MAX_TASKS_PER_TURN = 16;
+    // Max tasks run ahead of a waiting deferrable task before it gets its turn.
+    static final int MAX_OVERTAKES = 8;
+
+    private final ExecutionModel model;
+    private final ExecutorService thread;
+    private final ExecutorMetrics metrics = new ExecutorMetrics(TAG);
+    // Guards the queues and the lane state below.
+    private final Object lock = new Object();
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> deferredTasks = new ArrayDeque<>();
+    // Coalescing key -> queued task not started yet.
+    private final Map<Object, CoalescedTask> pendingLatest = new HashMap<>();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    private boolean scheduled;
+    private boolean shutdown;
+    private boolean released;
+    private int overtakes;
+    private volatile boolean prioritized = true;
+    private volatile Thread runningThread;
+
+    PeerConnectionExecutor(ExecutionModel model, ExecutorService thread) {
+        this.model = model;
+        this.thread = thread;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(TaskCategory.OTHER, task);
+    }
+
+    /**
+     * Runs |task| after every task of its priority submitted before, recording it under
+     * |category|.
+     */
+    public void execute(TaskCategory category, Runnable task) {
+        synchronized (lock) {
+            if (shutdown) {
+                Timber.tag(TAG).w("Dropping %s task submitted after shutdown.", category);
+                return;
+            }
+            queueOf(category).add(metrics.wrap(category, task));
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        schedule();
+    }
+
+    /**
+     * Like {@link #execute(TaskCategory, Runnable)}, but if a task posted with the same
+     * |key| has not started yet, |task| replaces it in its queue position instead of being
+     * queued after it. Use it for updates where only the newest value matters.
+     */
+    public void executeLatest(TaskCategory category, Object key, Runnable task) {
+        synchronized (lock) {
+            final CoalescedTask pending = pendingLatest.get(key);
+            if (pending != null) {
+                pending.task = task;
+                metrics.onCoalesced();
+                return;
+            }
+            if (shutdown) {
+                Timber.tag(TAG).w("Dropping %s task submitted after shutdown.", category);
+                return;
+            }
+            final CoalescedTask coalescedTask = new CoalescedTask(key, task);
+            pendingLatest.put(key, coalescedTask);
+            queueOf(category).add(metrics.wrap(category, coalescedTask));
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        schedule();
+    }
+
+    /**
+     * Enables or disables running deferrable tasks after all other pending tasks (enabled
+     * by default). When disabled every task runs in submission order.
+     */
+    public void setPrioritized(boolean prioritized) {
+        this.prioritized = prioritized;
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns true if the caller runs on this lane.
+     */
+    public boolean isOnExecutor() {
+        return runningThread == Thread.currentThread();
+    }
+
+    /**
+     * Rejects tasks submitted from now on. Tasks already queued still run, then the lane
+     * hands its thread back to the execution model.
+     */
+    public void shutdown() {
+        boolean idle;
+        synchronized (lock) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            idle = !scheduled;
+        }
+        if (idle) {
+            release();
+        }
+    }
+
+    private void schedule() {
+        try {
+            thread.execute(drainTask);
+        } catch (RejectedExecutionException e) {
+            Timber.tag(TAG).e(e, "Executor thread rejected task lane.");
+            synchronized (lock) {
+                for (int i = tasks.size() + deferredTasks.size(); i > 0; i--) {
+                    metrics.onDropped();
+                }
+                tasks.clear();
+                deferredTasks.clear();
+                pendingLatest.clear();
+                scheduled = false;
+            }
+        }
+    }
+
+    private void drain() {
+        runningThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+                Runnable task;
+                synchronized (lock) {
+                    task = poll();
+                    if (task == null) {
+                        break;
+                    }
+                }
+                task.run();
+            }
+        } finally {
+            // Also reached when a task throws: the exception still reaches the thread's
+            // uncaught exception handler, but the remaining tasks of the lane are not lost.
+            runningThread = null;
+            boolean reschedule;
+            boolean release;
+            synchronized (lock) {
+                reschedule = !tasks.isEmpty() || !deferredTasks.isEmpty();
+                scheduled = reschedule;
+                release = shutdown && !reschedule;
+            }
+            if (reschedule) {
+                schedule();
+            } else if (release) {
+                release();
+            }
+        }
+    }
+
+    private class CoalescedTask implements Runnable {
+        private final Object key;
+        // Guarded by |lock|.
+        private Runnable task;
+
+        CoalescedTask(Object key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            final Runnable latest;
+            synchronized (lock) {
+                pendingLatest.remove(key);
+                latest = task;
+            }
+            latest.run();
+        }
+    }
+
+    // Must be called with |lock| held.
+    private ArrayDeque<Runnable> queueOf(TaskCategory category) {
+        return prioritized && isDeferrable(category) ? deferredTasks : tasks;
+    }
+
+    // Must be called with |lock| held.
+    private Runnable poll() {
+        if (deferredTasks.isEmpty()) {
+            overtakes = 0;
+            return tasks.poll();
+        }
+        if (tasks.isEmpty() || overtakes >= MAX_OVERTAKES) {
+            overtakes = 0;
+            return deferredTasks.poll();
+        }
+        overtakes++;
+        return tasks.poll();
+    }
+
+    static boolean isDeferrable(TaskCategory category) {
+        return category == TaskCategory.STATS || category == TaskCategory.CAPTURE;
+    }
+
+    private void release() {
+        synchronized (lock) {
+            if (released) {
+                return;
+            }
+            released = true;
+        }
+        model.release(thread);
+    }
+}
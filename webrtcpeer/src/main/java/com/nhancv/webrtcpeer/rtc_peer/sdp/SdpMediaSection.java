@@ -0,0 +1,337 @@
+package com.nhancv.webrtcpeer.rtc_peer.sdp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * SdpMediaSection
+ * <p>
+ * Description: One m-section of an {@link SdpSession}, from its m= line up to the next one.
+ * The section keeps a reference to its slice of the original description and only splits
+ * it into lines and builds the rtpmap/fmtp/extmap indexes when one of them is accessed.
+ * Untouched sections are written back verbatim.
+ */
+public final class SdpMediaSection {
+    static final String LINE_SEPARATOR = "\r\n";
+    private static final String RTPMAP_PREFIX = "a=rtpmap:";
+    private static final String FMTP_PREFIX = "a=fmtp:";
+    private static final String EXTMAP_PREFIX = "a=extmap:";
+    private static final int MAX_EXTMAP_ID_DIGITS = 3;
+
+    private final int index;
+    private final String source;
+    private final int start;
+    private final int end;
+    private final String mediaType;
+
+    // Lazily parsed state, null until the section is first accessed.
+    @Nullable
+    private List<String> lines;
+    // Payload type -> rtpmap line index. Payload types are integers in the range 96-127,
+    // but they are stored as strings here.
+    @Nullable
+    private Map<String, Integer> rtpmapIndexes;
+    // Payload type -> first fmtp line index.
+    @Nullable
+    private Map<String, Integer> fmtpIndexes;
+    // Extension id -> extension URI, in SDP order.
+    @Nullable
+    private Map<Integer, String> extmaps;
+    private boolean modified;
+
+    SdpMediaSection(int index, String source, int start, int end) {
+        this.index = index;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        // m=<media> <port> <proto> <fmt> ...
+        int mediaEnd = source.indexOf(' ', start);
+        if (mediaEnd < 0 || mediaEnd > end) {
+            mediaEnd = end;
+        }
+        this.mediaType = source.substring(start + 2, mediaEnd);
+    }
+
+    /**
+     * Returns the position of this section among the m-sections of the description.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the media type of the m= line, e.g. "audio", "video" or "application".
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isAudio() {
+        return "audio".equals(mediaType);
+    }
+
+    public boolean isVideo() {
+        return "video".equals(mediaType);
+    }
+
+    /**
+     * Returns true once the section has been split into lines.
+     */
+    public boolean isParsed() {
+        return lines != null;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Returns the m= line of this section.
+     */
+    public String getMediaDescription() {
+        return lines().get(0);
+    }
+
+    public List<String> getLines() {
+        return Collections.unmodifiableList(lines());
+    }
+
+    /**
+     * Returns the payload types listed on the m= line, in preference order.
+     */
+    public List<String> getFormats() {
+        final String mLine = getMediaDescription();
+        final int protoEnd = findProtoEnd(mLine);
+        final List<String> formats = new ArrayList<>();
+        if (protoEnd < 0) {
+            return formats;
+        }
+        int from = protoEnd + 1;
+        while (from < mLine.length()) {
+            int to = mLine.indexOf(' ', from);
+            if (to < 0) {
+                to = mLine.length();
+            }
+            formats.add(mLine.substring(from, to));
+            from = to + 1;
+        }
+        return formats;
+    }
+
+    /**
+     * Returns the payload types whose rtpmap encoding name is |codec|, in SDP order.
+     */
+    public List<String> getPayloadTypes(String codec) {
+        final List<String> payloadTypes = new ArrayList<>();
+        final List<String> lines = lines();
+        for (Map.Entry<String, Integer> entry : rtpmapIndexes().entrySet()) {
+            if (SdpMunger.matchesRtpmapCodec(lines.get(entry.getValue()),
+                    RTPMAP_PREFIX.length() + entry.getKey().length() + 1, codec)) {
+                payloadTypes.add(entry.getKey());
+            }
+        }
+        return payloadTypes;
+    }
+
+    /**
+     * Returns the encoding name of |payloadType|, or null if it has no rtpmap line.
+     */
+    @Nullable
+    public String getCodec(String payloadType) {
+        final Integer lineIndex = rtpmapIndexes().get(payloadType);
+        if (lineIndex == null) {
+            return null;
+        }
+        final String line = lines().get(lineIndex);
+        final int nameStart = RTPMAP_PREFIX.length() + payloadType.length() + 1;
+        final int nameEnd = line.indexOf('/', nameStart);
+        return line.substring(nameStart, nameEnd < 0 ? line.length() : nameEnd);
+    }
+
+    /**
+     * Returns the format parameters of |payloadType|, or null if it has no fmtp line.
+     */
+    @Nullable
+    public String getFmtp(String payloadType) {
+        final Integer lineIndex = fmtpIndexes().get(payloadType);
+        if (lineIndex == null) {
+            return null;
+        }
+        return lines().get(lineIndex).substring(FMTP_PREFIX.length() + payloadType.length() + 1);
+    }
+
+    /**
+     * Sets the format parameters of |payloadType|. A new fmtp line is inserted right after
+     * the rtpmap line if the payload type has none.
+     */
+    public void setFmtp(String payloadType, String parameters) {
+        final String fmtpLine = FMTP_PREFIX + payloadType + " " + parameters;
+        final Integer lineIndex = fmtpIndexes().get(payloadType);
+        if (lineIndex != null) {
+            lines().set(lineIndex, fmtpLine);
+            modified = true;
+            return;
+        }
+        final Integer rtpmapIndex = rtpmapIndexes().get(payloadType);
+        lines().add(rtpmapIndex == null ? lines().size() : rtpmapIndex + 1, fmtpLine);
+        modified = true;
+        // Line indexes after the insertion point are stale now.
+        reindex();
+    }
+
+    /**
+     * Returns the header extensions of this section keyed by extension id.
+     */
+    public Map<Integer, String> getExtmaps() {
+        if (extmaps == null) {
+            reindex();
+        }
+        return Collections.unmodifiableMap(extmaps);
+    }
+
+    /**
+     * Returns the id of the header extension |uri|, or -1 if it is not negotiated.
+     */
+    public int getExtmapId(String uri) {
+        for (Map.Entry<Integer, String> entry : getExtmaps().entrySet()) {
+            if (entry.getValue().equals(uri)) {
+                return entry.getKey();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reorders the m= line so that |preferredPayloadTypes| come first. Returns false if the
+     * m= line is malformed.
+     */
+    public boolean movePayloadTypesToFront(List<String> preferredPayloadTypes) {
+        final String newMLine =
+                SdpMunger.movePayloadTypesToFront(preferredPayloadTypes, getMediaDescription());
+        if (newMLine == null) {
+            return false;
+        }
+        if (!newMLine.equals(getMediaDescription())) {
+            lines().set(0, newMLine);
+            modified = true;
+        }
+        return true;
+    }
+
+    void writeTo(StringBuilder builder) {
+        if (!modified) {
+            builder.append(source, start, end);
+            return;
+        }
+        for (String line : lines) {
+            builder.append(line).append(LINE_SEPARATOR);
+        }
+    }
+
+    private List<String> lines() {
+        if (lines == null) {
+            lines = splitLines(source, start, end);
+        }
+        return lines;
+    }
+
+    private Map<String, Integer> rtpmapIndexes() {
+        if (rtpmapIndexes == null) {
+            reindex();
+        }
+        return rtpmapIndexes;
+    }
+
+    private Map<String, Integer> fmtpIndexes() {
+        if (fmtpIndexes == null) {
+            reindex();
+        }
+        return fmtpIndexes;
+    }
+
+    private void reindex() {
+        final List<String> lines = lines();
+        final Map<String, Integer> rtpmaps = new LinkedHashMap<>();
+        final Map<String, Integer> fmtps = new HashMap<>();
+        final Map<Integer, String> extensions = new LinkedHashMap<>();
+        for (int i = 1; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            if (line.startsWith(RTPMAP_PREFIX)) {
+                // a=rtpmap:<payload type> <encoding name>/<clock rate> [/<encoding parameters>]
+                final String payloadType = attributeKey(line, RTPMAP_PREFIX.length());
+                if (payloadType != null && !rtpmaps.containsKey(payloadType)) {
+                    rtpmaps.put(payloadType, i);
+                }
+            } else if (line.startsWith(FMTP_PREFIX)) {
+                // a=fmtp:<payload type> <format specific parameters>
+                final String payloadType = attributeKey(line, FMTP_PREFIX.length());
+                if (payloadType != null && !fmtps.containsKey(payloadType)) {
+                    fmtps.put(payloadType, i);
+                }
+            } else if (line.startsWith(EXTMAP_PREFIX)) {
+                // a=extmap:<value>["/"<direction>] <URI> <extension attributes>
+                final String id = attributeKey(line, EXTMAP_PREFIX.length());
+                // Ids are 1-255 (RFC 8285); a longer id is malformed and may not fit an int.
+                if (id != null && id.length() <= MAX_EXTMAP_ID_DIGITS) {
+                    final int uriStart = line.indexOf(' ', EXTMAP_PREFIX.length()) + 1;
+                    int uriEnd = line.indexOf(' ', uriStart);
+                    if (uriEnd < 0) {
+                        uriEnd = line.length();
+                    }
+                    extensions.put(Integer.parseInt(id), line.substring(uriStart, uriEnd));
+                }
+            }
+        }
+        rtpmapIndexes = rtpmaps;
+        fmtpIndexes = fmtps;
+        extmaps = extensions;
+    }
+
+    /**
+     * Returns the numeric key of an "a=<attribute>:<key> <value>" line, or null if malformed.
+     * A "/<direction>" suffix on the key, as used by extmap, is stripped.
+     */
+    @Nullable
+    private static String attributeKey(String line, int offset) {
+        final int separator = line.indexOf(' ', offset);
+        if (separator < 0) {
+            return null;
+        }
+        int keyEnd = offset;
+        while (keyEnd < separator && Character.isDigit(line.charAt(keyEnd))) {
+            keyEnd++;
+        }
+        if (keyEnd == offset || (keyEnd != separator && line.charAt(keyEnd) != '/')) {
+            return null;
+        }
+        return line.substring(offset, keyEnd);
+    }
+
+    /**
+     * Returns the index of the space that ends the <proto> field of an m= line, or -1.
+     */
+    static int findProtoEnd(String mLine) {
+        final int mediaEnd = mLine.indexOf(' ');
+        final int portEnd = mediaEnd < 0 ? -1 : mLine.indexOf(' ', mediaEnd + 1);
+        return portEnd < 0 ? -1 : mLine.indexOf(' ', portEnd + 1);
+    }
+
+    static List<String> splitLines(String source, int start, int end) {
+        final List<String> lines = new ArrayList<>(16);
+        while (start < end) {
+            int lineEnd = source.indexOf(LINE_SEPARATOR, start);
+            if (lineEnd < 0 || lineEnd > end) {
+                lineEnd = end;
+            }
+            lines.add(source.substring(start, lineEnd));
+            start = lineEnd + LINE_SEPARATOR.length();
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,260 @@
+package com.nhancv.webrtcpeer.rtc_peer.sdp;
+
+import java.util.Iterator;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * SdpMunger
+ * <p>
+ * Description: Applies every configured SDP rewrite (audio/video codec preference and
+ * codec start bitrate) in a single pass over an {@link SdpSession}. The description is
+ * parsed once, all rewrites are applied to the m-sections they concern and the result is
+ * serialized once. No regex is involved, so a munger can be built once per connection and
+ * reused for every offer/answer.
+ */
+public final class SdpMunger {
+    private static final String TAG = "SdpMunger";
+    public static final String VIDEO_CODEC_PARAM_START_BITRATE = "x-google-start-bitrate";
+    public static final String AUDIO_CODEC_PARAM_BITRATE = "maxaveragebitrate";
+
+    @Nullable
+    private final String preferredAudioCodec;
+    @Nullable
+    private final String preferredVideoCodec;
+    @Nullable
+    private final String startBitrateCodec;
+    private final boolean startBitrateIsVideoCodec;
+    private final int startBitrateKbps;
+
+    private SdpMunger(Builder builder) {
+        this.preferredAudioCodec = builder.preferredAudioCodec;
+        this.preferredVideoCodec = builder.preferredVideoCodec;
+        this.startBitrateCodec = builder.startBitrateCodec;
+        this.startBitrateIsVideoCodec = builder.startBitrateIsVideoCodec;
+        this.startBitrateKbps = builder.startBitrateKbps;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if this munger has no rewrite configured and returns its input untouched.
+     */
+    public boolean isNoop() {
+        return preferredAudioCodec == null && preferredVideoCodec == null && startBitrateCodec == null;
+    }
+
+    /**
+     * Runs all configured rewrites over |sdpDescription|. Codec preference is applied to
+     * every m-section of the matching media type; m-sections no rewrite applies to are
+     * neither parsed nor rewritten. The input is returned as is if nothing had to be changed.
+     */
+    public String munge(String sdpDescription) {
+        if (isNoop()) {
+            return sdpDescription;
+        }
+        final SdpSession session = SdpSession.parse(sdpDescription);
+        boolean audioCodecFound = false;
+        boolean videoCodecFound = false;
+        boolean startBitrateCodecFound = false;
+        for (SdpMediaSection section : session.getMediaSections()) {
+            final boolean isAudio = section.isAudio();
+            if (!isAudio && !section.isVideo()) {
+                continue;
+            }
+            final String preferredCodec = isAudio ? preferredAudioCodec : preferredVideoCodec;
+            if (preferredCodec != null && preferCodec(section, preferredCodec)) {
+                if (isAudio) {
+                    audioCodecFound = true;
+                } else {
+                    videoCodecFound = true;
+                }
+            }
+            if (startBitrateCodec != null && isAudio != startBitrateIsVideoCodec
+                    && setStartBitrate(section)) {
+                startBitrateCodecFound = true;
+            }
+        }
+        if (preferredAudioCodec != null && !audioCodecFound) {
+            Timber.tag(TAG).w("No payload types with name %s", preferredAudioCodec);
+        }
+        if (preferredVideoCodec != null && !videoCodecFound) {
+            Timber.tag(TAG).w("No payload types with name %s", preferredVideoCodec);
+        }
+        if (startBitrateCodec != null && !startBitrateCodecFound) {
+            Timber.tag(TAG).w("No rtpmap for " + startBitrateCodec + " codec");
+        }
+        return session.toString();
+    }
+
+    /**
+     * Moves |codec| to the front of every audio or video media description.
+     */
+    public static String preferCodec(String sdpDescription, String codec, boolean isAudio) {
+        final Builder builder = builder();
+        if (isAudio) {
+            builder.preferAudioCodec(codec);
+        } else {
+            builder.preferVideoCodec(codec);
+        }
+        return builder.build().munge(sdpDescription);
+    }
+
+    /**
+     * Adds a start bitrate parameter to the a=fmtp line of |codec|.
+     */
+    public static String setStartBitrate(
+            String codec, boolean isVideoCodec, String sdpDescription, int bitrateKbps) {
+        return builder().startBitrate(codec, isVideoCodec, bitrateKbps).build().munge(sdpDescription);
+    }
+
+    public static String joinString(
+            Iterable<? extends CharSequence> s, String delimiter, boolean delimiterAtEnd) {
+        Iterator<? extends CharSequence> iter = s.iterator();
+        if (!iter.hasNext()) {
+            return "";
+        }
+        StringBuilder buffer = new StringBuilder(iter.next());
+        while (iter.hasNext()) {
+            buffer.append(delimiter).append(iter.next());
+        }
+        if (delimiterAtEnd) {
+            buffer.append(delimiter);
+        }
+        return buffer.toString();
+    }
+
+    private static boolean preferCodec(SdpMediaSection section, String codec) {
+        final List<String> payloadTypes = section.getPayloadTypes(codec);
+        if (payloadTypes.isEmpty()) {
+            return false;
+        }
+        final String mLine = section.getMediaDescription();
+        if (section.movePayloadTypesToFront(payloadTypes)) {
+            Timber.tag(TAG).d("Change media description from: " + mLine + " to "
+                    + section.getMediaDescription());
+        }
+        return true;
+    }
+
+    private boolean setStartBitrate(SdpMediaSection section) {
+        final List<String> payloadTypes = section.getPayloadTypes(startBitrateCodec);
+        if (payloadTypes.isEmpty()) {
+            return false;
+        }
+        final String payloadType = payloadTypes.get(0);
+        final String bitrateParam = startBitrateIsVideoCodec
+                ? VIDEO_CODEC_PARAM_START_BITRATE + "=" + startBitrateKbps
+                : AUDIO_CODEC_PARAM_BITRATE + "=" + (startBitrateKbps * 1000);
+        // Update an existing a=fmtp line with the new bitrate parameter, or add one.
+        final String fmtp = section.getFmtp(payloadType);
+        section.setFmtp(payloadType, fmtp == null ? bitrateParam : fmtp + "; " + bitrateParam);
+        Timber.tag(TAG).d("Set " + startBitrateCodec + " fmtp in m-section " + section.getIndex()
+                + ": " + section.getFmtp(payloadType));
+        return true;
+    }
+
+    /**
+     * Reconstructs a media description line (m=<media> <port> <proto> <fmt> ...) with
+     * |preferredPayloadTypes| moved to the beginning of the payload types.
+     */
+    @Nullable
+    static String movePayloadTypesToFront(List<String> preferredPayloadTypes, String mLine) {
+        final int protoEnd = SdpMediaSection.findProtoEnd(mLine);
+        if (protoEnd < 0 || protoEnd == mLine.length() - 1) {
+            Timber.tag(TAG).e("Wrong SDP media description format: %s", mLine);
+            return null;
+        }
+        final StringBuilder newMLine = new StringBuilder(mLine.length() + 16);
+        newMLine.append(mLine, 0, protoEnd);
+        for (String payloadType : preferredPayloadTypes) {
+            newMLine.append(' ').append(payloadType);
+        }
+        int start = protoEnd + 1;
+        while (start < mLine.length()) {
+            int end = mLine.indexOf(' ', start);
+            if (end < 0) {
+                end = mLine.length();
+            }
+            final String payloadType = mLine.substring(start, end);
+            if (!preferredPayloadTypes.contains(payloadType)) {
+                newMLine.append(' ').append(payloadType);
+            }
+            start = end + 1;
+        }
+        return newMLine.toString();
+    }
+
+    /**
+     * Checks that the rtpmap value starting at |offset| is "<encoding name>/<clock rate>
+     * [/<encoding parameters>]" with encoding name |codec|.
+     */
+    static boolean matchesRtpmapCodec(String line, int offset, @Nullable String codec) {
+        if (codec == null || !line.startsWith(codec, offset)) {
+            return false;
+        }
+        int index = offset + codec.length();
+        final int length = line.length();
+        if (index >= length || line.charAt(index) != '/') {
+            return false;
+        }
+        while (index < length && line.charAt(index) == '/') {
+            final int digitsStart = ++index;
+            while (index < length && Character.isDigit(line.charAt(index))) {
+                index++;
+            }
+            if (index == digitsStart) {
+                return false;
+            }
+        }
+        return index == length;
+    }
+
+    public static class Builder {
+        @Nullable
+        private String preferredAudioCodec;
+        @Nullable
+        private String preferredVideoCodec;
+        @Nullable
+        private String startBitrateCodec;
+        private boolean startBitrateIsVideoCodec;
+        private int startBitrateKbps;
+
+        private Builder() {
+        }
+
+        /**
+         * Moves |codec| payload types to the front of the audio media description.
+         */
+        public Builder preferAudioCodec(@Nullable String codec) {
+            this.preferredAudioCodec = codec;
+            return this;
+        }
+
+        /**
+         * Moves |codec| payload types to the front of the video media description.
+         */
+        public Builder preferVideoCodec(@Nullable String codec) {
+            this.preferredVideoCodec = codec;
+            return this;
+        }
+
+        /**
+         * Sets the start bitrate of |codec|, in kbps.
+         */
+        public Builder startBitrate(@Nullable String codec, boolean isVideoCodec, int bitrateKbps) {
+            this.startBitrateCodec = codec;
+            this.startBitrateIsVideoCodec = isVideoCodec;
+            this.startBitrateKbps = bitrateKbps;
+            return this;
+        }
+
+        public SdpMunger build() {
+            return new SdpMunger(this);
+        }
+    }
+}
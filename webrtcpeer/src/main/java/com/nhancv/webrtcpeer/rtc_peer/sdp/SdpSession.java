@@ -0,0 +1,94 @@
+package com.nhancv.webrtcpeer.rtc_peer.sdp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SdpSession
+ * <p>
+ * Description: Structured view over a session description. Parsing only locates the
+ * m-section boundaries; each {@link SdpMediaSection} is split into lines and indexed the
+ * first time it is accessed. {@link #toString()} returns the original description if no
+ * section was modified and otherwise rewrites only the modified sections.
+ */
+public final class SdpSession {
+    private static final String MEDIA_DESCRIPTION_START = SdpMediaSection.LINE_SEPARATOR + "m=";
+
+    private final String description;
+    // End of the session-level part, i.e. start of the first m= line.
+    private final int sessionEnd;
+    private final List<SdpMediaSection> mediaSections;
+
+    private SdpSession(String description, int sessionEnd, List<SdpMediaSection> mediaSections) {
+        this.description = description;
+        this.sessionEnd = sessionEnd;
+        this.mediaSections = mediaSections;
+    }
+
+    public static SdpSession parse(String description) {
+        final List<Integer> mLineStarts = new ArrayList<>();
+        if (description.startsWith("m=")) {
+            mLineStarts.add(0);
+        }
+        int from = 0;
+        int next;
+        while ((next = description.indexOf(MEDIA_DESCRIPTION_START, from)) >= 0) {
+            mLineStarts.add(next + SdpMediaSection.LINE_SEPARATOR.length());
+            from = next + MEDIA_DESCRIPTION_START.length();
+        }
+        final List<SdpMediaSection> mediaSections = new ArrayList<>(mLineStarts.size());
+        for (int i = 0; i < mLineStarts.size(); i++) {
+            final int end = i + 1 < mLineStarts.size() ? mLineStarts.get(i + 1) : description.length();
+            mediaSections.add(new SdpMediaSection(i, description, mLineStarts.get(i), end));
+        }
+        final int sessionEnd = mLineStarts.isEmpty() ? description.length() : mLineStarts.get(0);
+        return new SdpSession(description, sessionEnd, Collections.unmodifiableList(mediaSections));
+    }
+
+    /**
+     * Returns the session-level lines, i.e. everything before the first m= line.
+     */
+    public List<String> getSessionLines() {
+        return Collections.unmodifiableList(SdpMediaSection.splitLines(description, 0, sessionEnd));
+    }
+
+    public List<SdpMediaSection> getMediaSections() {
+        return mediaSections;
+    }
+
+    /**
+     * Returns every m-section of |mediaType| ("audio", "video", ...), in SDP order.
+     */
+    public List<SdpMediaSection> getMediaSections(String mediaType) {
+        final List<SdpMediaSection> sections = new ArrayList<>();
+        for (SdpMediaSection section : mediaSections) {
+            if (section.getMediaType().equals(mediaType)) {
+                sections.add(section);
+            }
+        }
+        return sections;
+    }
+
+    public boolean isModified() {
+        for (SdpMediaSection section : mediaSections) {
+            if (section.isModified()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (!isModified()) {
+            return description;
+        }
+        final StringBuilder builder = new StringBuilder(description.length() + 64);
+        builder.append(description, 0, sessionEnd);
+        for (SdpMediaSection section : mediaSections) {
+            section.writeTo(builder);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.webrtc.RTCStats;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * CandidatePairStats
+ * <p>
+ * Description: Fields of a "candidate-pair" stats object. Counters are cumulative; gauges
+ * are -1 when not reported. Instances are reused by {@link RtcStatsSnapshot}, copy values
+ * that have to outlive the callback.
+ */
+public final class CandidatePairStats {
+    public String id;
+    // "frozen", "waiting", "in-progress", "failed" or "succeeded".
+    @Nullable
+    public String state;
+    public boolean nominated;
+    @Nullable
+    public String localCandidateId;
+    @Nullable
+    public String remoteCandidateId;
+    public long bytesSent;
+    public long bytesReceived;
+    public long requestsSent;
+    public long responsesReceived;
+    // Seconds.
+    public double currentRoundTripTime;
+    public double totalRoundTripTime;
+    // Bits per second, as estimated by the congestion controller.
+    public double availableOutgoingBitrate;
+    public double availableIncomingBitrate;
+
+    void read(RTCStats stats) {
+        final Map<String, Object> members = stats.getMembers();
+        id = stats.getId();
+        state = StatsMembers.getString(members, "state");
+        nominated = StatsMembers.getBoolean(members, "nominated");
+        localCandidateId = StatsMembers.getString(members, "localCandidateId");
+        remoteCandidateId = StatsMembers.getString(members, "remoteCandidateId");
+        bytesSent = StatsMembers.getLong(members, "bytesSent", 0);
+        bytesReceived = StatsMembers.getLong(members, "bytesReceived", 0);
+        requestsSent = StatsMembers.getLong(members, "requestsSent", 0);
+        responsesReceived = StatsMembers.getLong(members, "responsesReceived", 0);
+        currentRoundTripTime = StatsMembers.getDouble(members, "currentRoundTripTime", -1);
+        totalRoundTripTime = StatsMembers.getDouble(members, "totalRoundTripTime", 0);
+        availableOutgoingBitrate = StatsMembers.getDouble(members, "availableOutgoingBitrate", -1);
+        availableIncomingBitrate = StatsMembers.getDouble(members, "availableIncomingBitrate", -1);
+    }
+}
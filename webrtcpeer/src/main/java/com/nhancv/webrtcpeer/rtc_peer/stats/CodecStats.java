@@ -0,0 +1,35 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.webrtc.RTCStats;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * CodecStats
+ * <p>
+ * Description: Fields of a "codec" stats object, referenced by the codecId of RTP stats.
+ * Instances are reused by {@link RtcStatsSnapshot}.
+ */
+public final class CodecStats {
+    public String id;
+    public int payloadType;
+    // e.g. "video/VP8".
+    @Nullable
+    public String mimeType;
+    public int clockRate;
+    public int channels;
+    @Nullable
+    public String sdpFmtpLine;
+
+    void read(RTCStats stats) {
+        final Map<String, Object> members = stats.getMembers();
+        id = stats.getId();
+        payloadType = StatsMembers.getInt(members, "payloadType", -1);
+        mimeType = StatsMembers.getString(members, "mimeType");
+        clockRate = StatsMembers.getInt(members, "clockRate", -1);
+        channels = StatsMembers.getInt(members, "channels", -1);
+        sdpFmtpLine = StatsMembers.getString(members, "sdpFmtpLine");
+    }
+}
@@ -0,0 +1,69 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.webrtc.RTCStats;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * InboundRtpStats
+ * <p>
+ * Description: Fields of an "inbound-rtp" stats object. Counters are cumulative since the
+ * stream started; gauges are -1 when not reported. Instances are reused by
+ * {@link RtcStatsSnapshot}, copy values that have to outlive the callback.
+ */
+public final class InboundRtpStats {
+    public String id;
+    public long ssrc;
+    public boolean isVideo;
+    @Nullable
+    public String codecId;
+    // Id of the receiving MediaStreamTrack.
+    @Nullable
+    public String trackIdentifier;
+    public long packetsReceived;
+    public long bytesReceived;
+    public long headerBytesReceived;
+    // Signed: duplicates can make it negative.
+    public long packetsLost;
+    // Seconds.
+    public double jitter;
+    public long framesReceived;
+    public long framesDecoded;
+    public long keyFramesDecoded;
+    public long framesDropped;
+    public long nackCount;
+    public long pliCount;
+    public long firCount;
+    // Seconds.
+    public double totalDecodeTime;
+    public int frameWidth;
+    public int frameHeight;
+    public double framesPerSecond;
+
+    void read(RTCStats stats) {
+        final Map<String, Object> members = stats.getMembers();
+        id = stats.getId();
+        ssrc = StatsMembers.getLong(members, "ssrc", 0);
+        isVideo = "video".equals(StatsMembers.getString(members, "kind"));
+        codecId = StatsMembers.getString(members, "codecId");
+        trackIdentifier = StatsMembers.getString(members, "trackIdentifier");
+        packetsReceived = StatsMembers.getLong(members, "packetsReceived", 0);
+        bytesReceived = StatsMembers.getLong(members, "bytesReceived", 0);
+        headerBytesReceived = StatsMembers.getLong(members, "headerBytesReceived", 0);
+        packetsLost = StatsMembers.getLong(members, "packetsLost", 0);
+        jitter = StatsMembers.getDouble(members, "jitter", -1);
+        framesReceived = StatsMembers.getLong(members, "framesReceived", 0);
+        framesDecoded = StatsMembers.getLong(members, "framesDecoded", 0);
+        keyFramesDecoded = StatsMembers.getLong(members, "keyFramesDecoded", 0);
+        framesDropped = StatsMembers.getLong(members, "framesDropped", 0);
+        nackCount = StatsMembers.getLong(members, "nackCount", 0);
+        pliCount = StatsMembers.getLong(members, "pliCount", 0);
+        firCount = StatsMembers.getLong(members, "firCount", 0);
+        totalDecodeTime = StatsMembers.getDouble(members, "totalDecodeTime", 0);
+        frameWidth = StatsMembers.getInt(members, "frameWidth", -1);
+        frameHeight = StatsMembers.getInt(members, "frameHeight", -1);
+        framesPerSecond = StatsMembers.getDouble(members, "framesPerSecond", -1);
+    }
+}
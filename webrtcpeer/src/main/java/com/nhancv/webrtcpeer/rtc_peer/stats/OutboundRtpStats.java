@@ -0,0 +1,104 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.webrtc.RTCStats;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * OutboundRtpStats
+ * <p>
+ * Description: Fields of an "outbound-rtp" stats object, plus the loss and round trip time
+ * the remote side reports for the same SSRC in "remote-inbound-rtp". Counters are
+ * cumulative since the stream started; gauges are -1 when not reported. Instances are
+ * reused by {@link RtcStatsSnapshot}, copy values that have to outlive the callback.
+ */
+public final class OutboundRtpStats {
+    public static final int QUALITY_LIMITATION_NONE = 0;
+    public static final int QUALITY_LIMITATION_CPU = 1;
+    public static final int QUALITY_LIMITATION_BANDWIDTH = 2;
+    public static final int QUALITY_LIMITATION_OTHER = 3;
+
+    public String id;
+    public long ssrc;
+    public boolean isVideo;
+    // Simulcast layer id, null without simulcast.
+    @Nullable
+    public String rid;
+    @Nullable
+    public String codecId;
+    public long packetsSent;
+    public long bytesSent;
+    public long headerBytesSent;
+    public long retransmittedBytesSent;
+    public long framesEncoded;
+    public long keyFramesEncoded;
+    public long nackCount;
+    public long pliCount;
+    public long firCount;
+    // Seconds.
+    public double totalEncodeTime;
+    public int frameWidth;
+    public int frameHeight;
+    public double framesPerSecond;
+    // Bits per second.
+    public double targetBitrate;
+    public int qualityLimitationReason;
+    // From remote-inbound-rtp.
+    public long remotePacketsLost;
+    public double remoteFractionLost;
+    // Seconds.
+    public double remoteRoundTripTime;
+    public double remoteJitter;
+
+    void read(RTCStats stats) {
+        final Map<String, Object> members = stats.getMembers();
+        id = stats.getId();
+        ssrc = StatsMembers.getLong(members, "ssrc", 0);
+        isVideo = "video".equals(StatsMembers.getString(members, "kind"));
+        rid = StatsMembers.getString(members, "rid");
+        codecId = StatsMembers.getString(members, "codecId");
+        packetsSent = StatsMembers.getLong(members, "packetsSent", 0);
+        bytesSent = StatsMembers.getLong(members, "bytesSent", 0);
+        headerBytesSent = StatsMembers.getLong(members, "headerBytesSent", 0);
+        retransmittedBytesSent = StatsMembers.getLong(members, "retransmittedBytesSent", 0);
+        framesEncoded = StatsMembers.getLong(members, "framesEncoded", 0);
+        keyFramesEncoded = StatsMembers.getLong(members, "keyFramesEncoded", 0);
+        nackCount = StatsMembers.getLong(members, "nackCount", 0);
+        pliCount = StatsMembers.getLong(members, "pliCount", 0);
+        firCount = StatsMembers.getLong(members, "firCount", 0);
+        totalEncodeTime = StatsMembers.getDouble(members, "totalEncodeTime", 0);
+        frameWidth = StatsMembers.getInt(members, "frameWidth", -1);
+        frameHeight = StatsMembers.getInt(members, "frameHeight", -1);
+        framesPerSecond = StatsMembers.getDouble(members, "framesPerSecond", -1);
+        targetBitrate = StatsMembers.getDouble(members, "targetBitrate", -1);
+        qualityLimitationReason =
+                parseQualityLimitationReason(StatsMembers.getString(members, "qualityLimitationReason"));
+        remotePacketsLost = 0;
+        remoteFractionLost = -1;
+        remoteRoundTripTime = -1;
+        remoteJitter = -1;
+    }
+
+    void readRemoteInbound(Map<String, Object> members) {
+        remotePacketsLost = StatsMembers.getLong(members, "packetsLost", 0);
+        remoteFractionLost = StatsMembers.getDouble(members, "fractionLost", -1);
+        remoteRoundTripTime = StatsMembers.getDouble(members, "roundTripTime", -1);
+        remoteJitter = StatsMembers.getDouble(members, "jitter", -1);
+    }
+
+    static int parseQualityLimitationReason(@Nullable String reason) {
+        if (reason == null || "none".equals(reason)) {
+            return QUALITY_LIMITATION_NONE;
+        }
+        switch (reason) {
+            case "cpu":
+                return QUALITY_LIMITATION_CPU;
+            case "bandwidth":
+                return QUALITY_LIMITATION_BANDWIDTH;
+            default:
+                return QUALITY_LIMITATION_OTHER;
+        }
+    }
+}
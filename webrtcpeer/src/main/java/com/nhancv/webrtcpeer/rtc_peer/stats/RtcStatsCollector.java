@@ -0,0 +1,49 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import com.nhancv.webrtcpeer.rtc_peer.executor.PeerConnectionExecutor;
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
+import org.webrtc.RTCStatsCollectorCallback;
+import org.webrtc.RTCStatsReport;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * RtcStatsCollector
+ * <p>
+ * Description: RTCStatsCollectorCallback that parses each report into one reused
+ * {@link RtcStatsSnapshot} and hands it to the registered listeners. Parsing and delivery
+ * run on the PeerConnectionClient executor, so a snapshot is never refilled while a
+ * listener reads it.
+ */
+public class RtcStatsCollector implements RTCStatsCollectorCallback {
+    private final PeerConnectionExecutor executor;
+    private final RtcStatsSnapshot snapshot = new RtcStatsSnapshot();
+    private final CopyOnWriteArrayList<RtcStatsListener> listeners = new CopyOnWriteArrayList<>();
+
+    public RtcStatsCollector(PeerConnectionExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void addListener(RtcStatsListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(RtcStatsListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    @Override
+    public void onStatsDelivered(final RTCStatsReport report) {
+        executor.execute(TaskCategory.STATS, () -> {
+            RtcStatsParser.parse(report, snapshot);
+            for (RtcStatsListener listener : listeners) {
+                listener.onRtcStats(snapshot);
+            }
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+/**
+ * RtcStatsListener
+ * <p>
+ * Description: Receives the typed stats of every poll, on the PeerConnectionClient
+ * executor thread.
+ */
+public interface RtcStatsListener {
+    /**
+     * |snapshot| is reused for the next poll; do not keep references to it or its content.
+     */
+    void onRtcStats(RtcStatsSnapshot snapshot);
+}
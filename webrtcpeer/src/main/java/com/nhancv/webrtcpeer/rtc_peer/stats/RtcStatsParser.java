@@ -0,0 +1,64 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.util.Map;
+
+/**
+ * RtcStatsParser
+ * <p>
+ * Description: Fills a {@link RtcStatsSnapshot} from an RTCStatsReport. Only the stats types
+ * the snapshot models are read; all others are skipped after comparing their type.
+ */
+public final class RtcStatsParser {
+    private static final String TYPE_OUTBOUND_RTP = "outbound-rtp";
+    private static final String TYPE_INBOUND_RTP = "inbound-rtp";
+    private static final String TYPE_REMOTE_INBOUND_RTP = "remote-inbound-rtp";
+    private static final String TYPE_CANDIDATE_PAIR = "candidate-pair";
+    private static final String TYPE_CODEC = "codec";
+    private static final String TYPE_TRANSPORT = "transport";
+
+    private RtcStatsParser() {
+    }
+
+    public static void parse(RTCStatsReport report, RtcStatsSnapshot snapshot) {
+        snapshot.clear((long) report.getTimestampUs());
+        final Map<String, RTCStats> statsMap = report.getStatsMap();
+        boolean hasRemoteInbound = false;
+        for (RTCStats stats : statsMap.values()) {
+            final String type = stats.getType();
+            if (TYPE_OUTBOUND_RTP.equals(type)) {
+                snapshot.addOutboundRtp().read(stats);
+            } else if (TYPE_INBOUND_RTP.equals(type)) {
+                snapshot.addInboundRtp().read(stats);
+            } else if (TYPE_CANDIDATE_PAIR.equals(type)) {
+                snapshot.addCandidatePair().read(stats);
+            } else if (TYPE_CODEC.equals(type)) {
+                snapshot.addCodec().read(stats);
+            } else if (TYPE_TRANSPORT.equals(type)) {
+                snapshot.setSelectedCandidatePairId(
+                        StatsMembers.getString(stats.getMembers(), "selectedCandidatePairId"));
+            } else if (TYPE_REMOTE_INBOUND_RTP.equals(type)) {
+                hasRemoteInbound = true;
+            }
+        }
+        if (!hasRemoteInbound) {
+            return;
+        }
+        // Remote reports are joined to the outbound stream with the same SSRC once all
+        // outbound streams are known; map order is not guaranteed.
+        for (RTCStats stats : statsMap.values()) {
+            if (!TYPE_REMOTE_INBOUND_RTP.equals(stats.getType())) {
+                continue;
+            }
+            final Map<String, Object> members = stats.getMembers();
+            final OutboundRtpStats outbound = snapshot.findOutboundRtp(
+                    StatsMembers.getLong(members, "ssrc", 0),
+                    "video".equals(StatsMembers.getString(members, "kind")));
+            if (outbound != null) {
+                outbound.readRemoteInbound(members);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+
+/**
+ * RtcStatsSnapshot
+ * <p>
+ * Description: Typed view of one RTCStatsReport: outbound/inbound RTP, candidate-pair and
+ * codec stats as primitive fields. A snapshot and the stats objects in it are reused for
+ * every poll, so steady polling does not allocate once the pools have grown to the number
+ * of streams of the call. Only valid during the {@link RtcStatsListener} callback.
+ */
+public final class RtcStatsSnapshot {
+    private final Pool<OutboundRtpStats> outboundRtp = new Pool<OutboundRtpStats>() {
+        @Override
+        OutboundRtpStats create() {
+            return new OutboundRtpStats();
+        }
+    };
+    private final Pool<InboundRtpStats> inboundRtp = new Pool<InboundRtpStats>() {
+        @Override
+        InboundRtpStats create() {
+            return new InboundRtpStats();
+        }
+    };
+    private final Pool<CandidatePairStats> candidatePairs = new Pool<CandidatePairStats>() {
+        @Override
+        CandidatePairStats create() {
+            return new CandidatePairStats();
+        }
+    };
+    private final Pool<CodecStats> codecs = new Pool<CodecStats>() {
+        @Override
+        CodecStats create() {
+            return new CodecStats();
+        }
+    };
+    private long timestampUs;
+    @Nullable
+    private String selectedCandidatePairId;
+
+    public long getTimestampUs() {
+        return timestampUs;
+    }
+
+    public int getOutboundRtpCount() {
+        return outboundRtp.size;
+    }
+
+    public OutboundRtpStats getOutboundRtp(int index) {
+        return outboundRtp.get(index);
+    }
+
+    public int getInboundRtpCount() {
+        return inboundRtp.size;
+    }
+
+    public InboundRtpStats getInboundRtp(int index) {
+        return inboundRtp.get(index);
+    }
+
+    public int getCandidatePairCount() {
+        return candidatePairs.size;
+    }
+
+    public CandidatePairStats getCandidatePair(int index) {
+        return candidatePairs.get(index);
+    }
+
+    public int getCodecCount() {
+        return codecs.size;
+    }
+
+    public CodecStats getCodec(int index) {
+        return codecs.get(index);
+    }
+
+    /**
+     * Returns the codec stats with id |codecId|, as referenced by RTP stats.
+     */
+    @Nullable
+    public CodecStats findCodec(@Nullable String codecId) {
+        if (codecId == null) {
+            return null;
+        }
+        for (int i = 0; i < codecs.size; i++) {
+            if (codecId.equals(codecs.get(i).id)) {
+                return codecs.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the candidate pair the transport currently sends on: the pair selected by the
+     * transport stats or, if those are missing, the nominated succeeded pair.
+     */
+    @Nullable
+    public CandidatePairStats getSelectedCandidatePair() {
+        CandidatePairStats nominated = null;
+        for (int i = 0; i < candidatePairs.size; i++) {
+            final CandidatePairStats pair = candidatePairs.get(i);
+            if (pair.id.equals(selectedCandidatePairId)) {
+                return pair;
+            }
+            if (nominated == null && pair.nominated && "succeeded".equals(pair.state)) {
+                nominated = pair;
+            }
+        }
+        return nominated;
+    }
+
+    @Nullable
+    OutboundRtpStats findOutboundRtp(long ssrc, boolean isVideo) {
+        for (int i = 0; i < outboundRtp.size; i++) {
+            final OutboundRtpStats stats = outboundRtp.get(i);
+            if (stats.ssrc == ssrc && stats.isVideo == isVideo) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    void clear(long timestampUs) {
+        this.timestampUs = timestampUs;
+        this.selectedCandidatePairId = null;
+        outboundRtp.size = 0;
+        inboundRtp.size = 0;
+        candidatePairs.size = 0;
+        codecs.size = 0;
+    }
+
+    void setSelectedCandidatePairId(@Nullable String selectedCandidatePairId) {
+        this.selectedCandidatePairId = selectedCandidatePairId;
+    }
+
+    OutboundRtpStats addOutboundRtp() {
+        return outboundRtp.add();
+    }
+
+    InboundRtpStats addInboundRtp() {
+        return inboundRtp.add();
+    }
+
+    CandidatePairStats addCandidatePair() {
+        return candidatePairs.add();
+    }
+
+    CodecStats addCodec() {
+        return codecs.add();
+    }
+
+    /**
+     * Grow-only list of reusable stats objects; the first |size| ones are in use.
+     */
+    private abstract static class Pool<T> {
+        private final List<T> items = new ArrayList<>();
+        int size;
+
+        abstract T create();
+
+        T add() {
+            if (size == items.size()) {
+                items.add(create());
+            }
+            return items.get(size++);
+        }
+
+        T get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return items.get(index);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+/**
+ * StatsDelta
+ * <p>
+ * Description: Per-interval rates computed by {@link StatsDeltaEngine} from two consecutive
+ * stats polls: aggregate rates per direction and media kind, plus the same rates per RTP
+ * stream. Gauges (RTT, available bitrate) are -1 when not reported. The instance is reused
+ * for every interval; copy values that have to outlive the callback.
+ */
+public final class StatsDelta {
+    public long timestampUs;
+    public long intervalUs;
+
+    public double audioSendKbps;
+    public double videoSendKbps;
+    public double audioReceiveKbps;
+    public double videoReceiveKbps;
+    // Highest rate among the outbound video streams, i.e. the top simulcast layer.
+    public double videoSendFps;
+    public double videoReceiveFps;
+    // Loss reported by the remote side for our outbound streams.
+    public double audioSendLossPercent;
+    public double videoSendLossPercent;
+    public double audioReceiveLossPercent;
+    public double videoReceiveLossPercent;
+    public double rttMs;
+    public double availableOutgoingKbps;
+    // OutboundRtpStats.QUALITY_LIMITATION_* of the outbound video.
+    public int qualityLimitationReason;
+
+    // Per stream rates, valid for indexes below |streamCount|.
+    public int streamCount;
+    public long[] ssrc = new long[0];
+    public boolean[] outbound = new boolean[0];
+    public boolean[] video = new boolean[0];
+    public double[] kbps = new double[0];
+    public double[] fps = new double[0];
+    public double[] lossPercent = new double[0];
+
+    void ensureCapacity(int capacity) {
+        if (ssrc.length >= capacity) {
+            return;
+        }
+        ssrc = new long[capacity];
+        outbound = new boolean[capacity];
+        video = new boolean[capacity];
+        kbps = new double[capacity];
+        fps = new double[capacity];
+        lossPercent = new double[capacity];
+    }
+}
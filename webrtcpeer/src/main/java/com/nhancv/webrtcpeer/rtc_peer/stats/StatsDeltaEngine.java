@@ -0,0 +1,212 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * StatsDeltaEngine
+ * <p>
+ * Description: Turns the cumulative counters of consecutive {@link RtcStatsSnapshot}s into
+ * per-interval rates (kbps, fps, loss %) plus RTT and available bitrate, delivered as a
+ * {@link StatsDelta}. The previous sample is kept in primitive arrays indexed by stream and
+ * swapped with the current one each poll, so steady polling does not allocate. A stream
+ * seen for the first time, or whose counters went backwards, reports zero rates for that
+ * interval.
+ */
+public class StatsDeltaEngine implements RtcStatsListener {
+    private final CopyOnWriteArrayList<StatsDeltaListener> listeners = new CopyOnWriteArrayList<>();
+    private final StatsDelta delta = new StatsDelta();
+    // Byte, packet and lost packet deltas summed per [audio send, video send,
+    // audio receive, video receive].
+    private final double[] bytes = new double[4];
+    private final double[] packets = new double[4];
+    private final double[] lost = new double[4];
+    private Sample previous = new Sample();
+    private Sample current = new Sample();
+    private long previousTimestampUs = -1;
+
+    public void addListener(StatsDeltaListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(StatsDeltaListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Forgets the previous sample, e.g. after polling was paused for a long time.
+     */
+    public void reset() {
+        previous.count = 0;
+        previousTimestampUs = -1;
+    }
+
+    @Override
+    public void onRtcStats(RtcStatsSnapshot snapshot) {
+        current.fill(snapshot);
+        final long timestampUs = snapshot.getTimestampUs();
+        final long intervalUs = timestampUs - previousTimestampUs;
+        final boolean hasPrevious = previousTimestampUs >= 0 && intervalUs > 0;
+        if (hasPrevious) {
+            compute(snapshot, timestampUs, intervalUs);
+        }
+        final Sample swap = previous;
+        previous = current;
+        current = swap;
+        previousTimestampUs = timestampUs;
+        if (hasPrevious) {
+            for (StatsDeltaListener listener : listeners) {
+                listener.onStatsDelta(delta);
+            }
+        }
+    }
+
+    private void compute(RtcStatsSnapshot snapshot, long timestampUs, long intervalUs) {
+        final StatsDelta delta = this.delta;
+        delta.timestampUs = timestampUs;
+        delta.intervalUs = intervalUs;
+        delta.ensureCapacity(current.count);
+        delta.streamCount = current.count;
+        Arrays.fill(bytes, 0);
+        Arrays.fill(packets, 0);
+        Arrays.fill(lost, 0);
+        double videoSendFps = 0;
+        double videoReceiveFps = 0;
+        for (int i = 0; i < current.count; i++) {
+            final int j = previous.indexOf(current.ssrc[i], current.outbound[i], current.video[i]);
+            final long dBytes = j < 0 ? -1 : current.bytes[i] - previous.bytes[j];
+            final long dPackets = j < 0 ? -1 : current.packets[i] - previous.packets[j];
+            final long dLost = j < 0 ? -1 : current.lost[i] - previous.lost[j];
+            final long dFrames = j < 0 ? -1 : current.frames[i] - previous.frames[j];
+            delta.ssrc[i] = current.ssrc[i];
+            delta.outbound[i] = current.outbound[i];
+            delta.video[i] = current.video[i];
+            delta.kbps[i] = dBytes > 0 ? dBytes * 8000d / intervalUs : 0;
+            delta.fps[i] = dFrames > 0 ? dFrames * 1_000_000d / intervalUs : 0;
+            // Outbound loss is relative to packets sent, inbound loss to packets expected.
+            final long expected = current.outbound[i] ? dPackets : dPackets + dLost;
+            delta.lossPercent[i] = dPackets >= 0 && dLost > 0 && expected > 0
+                    ? Math.min(100d, dLost * 100d / expected) : 0;
+
+            final int aggregate = (current.outbound[i] ? 0 : 2) + (current.video[i] ? 1 : 0);
+            bytes[aggregate] += Math.max(0, dBytes);
+            if (dPackets > 0) {
+                packets[aggregate] += current.outbound[i] ? dPackets : dPackets + Math.max(0, dLost);
+                lost[aggregate] += Math.max(0, dLost);
+            }
+            if (current.video[i]) {
+                if (current.outbound[i]) {
+                    videoSendFps = Math.max(videoSendFps, delta.fps[i]);
+                } else {
+                    videoReceiveFps = Math.max(videoReceiveFps, delta.fps[i]);
+                }
+            }
+        }
+        delta.audioSendKbps = bytes[0] * 8000d / intervalUs;
+        delta.videoSendKbps = bytes[1] * 8000d / intervalUs;
+        delta.audioReceiveKbps = bytes[2] * 8000d / intervalUs;
+        delta.videoReceiveKbps = bytes[3] * 8000d / intervalUs;
+        delta.audioSendLossPercent = lossPercent(lost[0], packets[0]);
+        delta.videoSendLossPercent = lossPercent(lost[1], packets[1]);
+        delta.audioReceiveLossPercent = lossPercent(lost[2], packets[2]);
+        delta.videoReceiveLossPercent = lossPercent(lost[3], packets[3]);
+        delta.videoSendFps = videoSendFps;
+        delta.videoReceiveFps = videoReceiveFps;
+        readGauges(snapshot, delta);
+    }
+
+    private static void readGauges(RtcStatsSnapshot snapshot, StatsDelta delta) {
+        double rttMs = -1;
+        delta.availableOutgoingKbps = -1;
+        final CandidatePairStats pair = snapshot.getSelectedCandidatePair();
+        if (pair != null) {
+            if (pair.currentRoundTripTime >= 0) {
+                rttMs = pair.currentRoundTripTime * 1000;
+            }
+            if (pair.availableOutgoingBitrate >= 0) {
+                delta.availableOutgoingKbps = pair.availableOutgoingBitrate / 1000;
+            }
+        }
+        delta.qualityLimitationReason = OutboundRtpStats.QUALITY_LIMITATION_NONE;
+        for (int i = 0; i < snapshot.getOutboundRtpCount(); i++) {
+            final OutboundRtpStats outbound = snapshot.getOutboundRtp(i);
+            if (rttMs < 0 && outbound.remoteRoundTripTime >= 0) {
+                rttMs = outbound.remoteRoundTripTime * 1000;
+            }
+            if (outbound.isVideo && outbound.qualityLimitationReason > delta.qualityLimitationReason) {
+                delta.qualityLimitationReason = outbound.qualityLimitationReason;
+            }
+        }
+        delta.rttMs = rttMs;
+    }
+
+    private static double lossPercent(double lost, double packets) {
+        return packets > 0 ? Math.min(100d, lost * 100d / packets) : 0;
+    }
+
+    /**
+     * Cumulative counters of every RTP stream of one poll, outbound streams first.
+     */
+    private static final class Sample {
+        int count;
+        long[] ssrc = new long[0];
+        boolean[] outbound = new boolean[0];
+        boolean[] video = new boolean[0];
+        long[] bytes = new long[0];
+        long[] packets = new long[0];
+        long[] lost = new long[0];
+        long[] frames = new long[0];
+
+        void fill(RtcStatsSnapshot snapshot) {
+            final int outboundCount = snapshot.getOutboundRtpCount();
+            count = outboundCount + snapshot.getInboundRtpCount();
+            ensureCapacity(count);
+            for (int i = 0; i < outboundCount; i++) {
+                final OutboundRtpStats stats = snapshot.getOutboundRtp(i);
+                ssrc[i] = stats.ssrc;
+                outbound[i] = true;
+                video[i] = stats.isVideo;
+                bytes[i] = stats.bytesSent;
+                packets[i] = stats.packetsSent;
+                lost[i] = stats.remotePacketsLost;
+                frames[i] = stats.framesEncoded;
+            }
+            for (int i = outboundCount; i < count; i++) {
+                final InboundRtpStats stats = snapshot.getInboundRtp(i - outboundCount);
+                ssrc[i] = stats.ssrc;
+                outbound[i] = false;
+                video[i] = stats.isVideo;
+                bytes[i] = stats.bytesReceived;
+                packets[i] = stats.packetsReceived;
+                lost[i] = stats.packetsLost;
+                frames[i] = stats.framesDecoded;
+            }
+        }
+
+        int indexOf(long ssrc, boolean outbound, boolean video) {
+            for (int i = 0; i < count; i++) {
+                if (this.ssrc[i] == ssrc && this.outbound[i] == outbound && this.video[i] == video) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (ssrc.length >= capacity) {
+                return;
+            }
+            ssrc = new long[capacity];
+            outbound = new boolean[capacity];
+            video = new boolean[capacity];
+            bytes = new long[capacity];
+            packets = new long[capacity];
+            lost = new long[capacity];
+            frames = new long[capacity];
+        }
+    }
+}
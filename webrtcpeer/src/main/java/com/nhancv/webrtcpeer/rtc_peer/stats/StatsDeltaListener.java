@@ -0,0 +1,13 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+/**
+ * StatsDeltaListener
+ * <p>
+ * Description: Receives per-interval rates on the PeerConnectionClient executor thread.
+ */
+public interface StatsDeltaListener {
+    /**
+     * |delta| is reused for the next interval; do not keep references to it.
+     */
+    void onStatsDelta(StatsDelta delta);
+}
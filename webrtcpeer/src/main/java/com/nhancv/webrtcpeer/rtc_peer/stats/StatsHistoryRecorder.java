@@ -0,0 +1,198 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * StatsHistoryRecorder
+ * <p>
+ * Description: Keeps the last |capacity| {@link StatsDelta}s of a call in a fixed-size,
+ * columnar ring buffer allocated off the Java heap, and exports them as a compact binary
+ * file for post-mortems. Recording a sample writes a few primitives into the direct buffer
+ * and never allocates.
+ * <p>
+ * Export format, little-endian:
+ * <pre>
+ * int32   magic "RTSH"
+ * int16   version (1)
+ * int16   column count
+ * int32   row count
+ * per column: int8 type (0: int64, 1: float32), int8 name length, UTF-8 name
+ * per column: row count values, oldest row first
+ * </pre>
+ */
+public class StatsHistoryRecorder implements StatsDeltaListener {
+    public static final int MAGIC = 0x48535452; // "RTSH" read as little-endian int32.
+    public static final short VERSION = 1;
+    public static final byte TYPE_INT64 = 0;
+    public static final byte TYPE_FLOAT32 = 1;
+
+    // Column 0 is the sample timestamp in microseconds (int64); all others are float32.
+    private static final String[] COLUMNS = {
+            "timestampUs",
+            "intervalMs",
+            "audioSendKbps",
+            "videoSendKbps",
+            "audioReceiveKbps",
+            "videoReceiveKbps",
+            "videoSendFps",
+            "videoReceiveFps",
+            "audioSendLossPercent",
+            "videoSendLossPercent",
+            "audioReceiveLossPercent",
+            "videoReceiveLossPercent",
+            "rttMs",
+            "availableOutgoingKbps",
+            "qualityLimitationReason",
+    };
+
+    private final int capacity;
+    private final ByteBuffer buffer;
+    // Index of the oldest row and number of rows held.
+    private int start;
+    private int size;
+
+    public StatsHistoryRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * (8 + 4 * (COLUMNS.length - 1)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public static int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    public static String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public synchronized void onStatsDelta(StatsDelta delta) {
+        final int row;
+        if (size < capacity) {
+            row = (start + size++) % capacity;
+        } else {
+            // Full: overwrite the oldest row.
+            row = start;
+            start = (start + 1) % capacity;
+        }
+        buffer.putLong(row * 8, delta.timestampUs);
+        int column = 1;
+        putFloat(column++, row, delta.intervalUs / 1000f);
+        putFloat(column++, row, delta.audioSendKbps);
+        putFloat(column++, row, delta.videoSendKbps);
+        putFloat(column++, row, delta.audioReceiveKbps);
+        putFloat(column++, row, delta.videoReceiveKbps);
+        putFloat(column++, row, delta.videoSendFps);
+        putFloat(column++, row, delta.videoReceiveFps);
+        putFloat(column++, row, delta.audioSendLossPercent);
+        putFloat(column++, row, delta.videoSendLossPercent);
+        putFloat(column++, row, delta.audioReceiveLossPercent);
+        putFloat(column++, row, delta.videoReceiveLossPercent);
+        putFloat(column++, row, delta.rttMs);
+        putFloat(column++, row, delta.availableOutgoingKbps);
+        putFloat(column, row, delta.qualityLimitationReason);
+    }
+
+    public synchronized long getTimestampUs(int index) {
+        return buffer.getLong(rowOf(index) * 8);
+    }
+
+    /**
+     * Returns the value of float32 |column| in the |index|-th oldest row.
+     */
+    public synchronized float getFloat(int column, int index) {
+        if (column <= 0 || column >= COLUMNS.length) {
+            throw new IllegalArgumentException("Not a float32 column: " + column);
+        }
+        return buffer.getFloat(floatOffset(column, rowOf(index)));
+    }
+
+    public synchronized void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    public void writeTo(File file) throws IOException {
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            writeTo(output.getChannel());
+        }
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        writeTo(Channels.newChannel(output));
+    }
+
+    /**
+     * Writes the history in the format described above. Column data is written straight
+     * from the direct buffer.
+     */
+    public synchronized void writeTo(WritableByteChannel channel) throws IOException {
+        int headerSize = 12;
+        for (String name : COLUMNS) {
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) COLUMNS.length).putInt(size);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            final byte[] name = COLUMNS[i].getBytes(StandardCharsets.UTF_8);
+            header.put(i == 0 ? TYPE_INT64 : TYPE_FLOAT32).put((byte) name.length).put(name);
+        }
+        header.flip();
+        writeFully(channel, header);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            final int width = column == 0 ? 8 : 4;
+            final int columnStart = column == 0 ? 0 : floatOffset(column, 0);
+            // Oldest rows up to the end of the ring, then the wrapped part.
+            final int firstRun = Math.min(size, capacity - start);
+            writeFully(channel, slice(columnStart + start * width, firstRun * width));
+            writeFully(channel, slice(columnStart, (size - firstRun) * width));
+        }
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length).position(offset);
+        return slice;
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    private void putFloat(int column, int row, double value) {
+        buffer.putFloat(floatOffset(column, row), (float) value);
+    }
+
+    private int floatOffset(int column, int row) {
+        // The int64 timestamp column comes first, then float32 columns of |capacity| rows.
+        return capacity * 8 + ((column - 1) * capacity + row) * 4;
+    }
+
+    private int rowOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return (start + index) % capacity;
+    }
+}
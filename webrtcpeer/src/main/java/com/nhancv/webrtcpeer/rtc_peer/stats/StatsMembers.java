@@ -0,0 +1,43 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * StatsMembers
+ * <p>
+ * Description: Typed accessors for RTCStats members. WebRTC already delivers members as
+ * boxed numbers (Integer, Long, BigInteger or Double depending on the spec type), so values
+ * are unboxed as they are; nothing is parsed from strings.
+ */
+final class StatsMembers {
+    private StatsMembers() {
+    }
+
+    static long getLong(Map<String, Object> members, String key, long defaultValue) {
+        final Object value = members.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    static int getInt(Map<String, Object> members, String key, int defaultValue) {
+        final Object value = members.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    static double getDouble(Map<String, Object> members, String key, double defaultValue) {
+        final Object value = members.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    static boolean getBoolean(Map<String, Object> members, String key) {
+        final Object value = members.get(key);
+        return value instanceof Boolean && (Boolean) value;
+    }
+
+    @Nullable
+    static String getString(Map<String, Object> members, String key) {
+        final Object value = members.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+}
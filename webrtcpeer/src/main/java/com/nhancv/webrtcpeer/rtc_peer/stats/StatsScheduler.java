@@ -0,0 +1,194 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.Nullable;
+
+/**
+ * StatsScheduler
+ * <p>
+ * Description: Schedules stats polls with either a fixed or an adaptive period, and can be
+ * stopped, paused and restarted any number of times. In adaptive mode polls run at the
+ * fast period while the call is unstable (call setup, ICE restarts, or degradation seen in
+ * the last {@link StatsDelta}) and the period doubles after every
+ * {@link #STABLE_POLLS_BEFORE_BACKOFF} stable polls, up to the slow period.
+ * <p>
+ * All clients share one daemon timer thread; a tick only hands |pollTask| to the client,
+ * which posts it to its own executor.
+ */
+public class StatsScheduler implements StatsDeltaListener {
+    static final int STABLE_POLLS_BEFORE_BACKOFF = 4;
+    // A call is degraded above this loss, or when RTT exceeds both the floor and
+    // RTT_DEGRADATION_FACTOR times the lowest RTT seen.
+    private static final double LOSS_DEGRADATION_PERCENT = 2;
+    private static final double RTT_DEGRADATION_FACTOR = 2;
+    private static final double RTT_DEGRADATION_FLOOR_MS = 150;
+
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "PCStatsScheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Runnable pollTask;
+    // Guarded by |this|.
+    @Nullable
+    private ScheduledFuture<?> pending;
+    // Bumped whenever the pending tick is cancelled, so a tick that already started
+    // running does not schedule a second chain.
+    private int generation;
+    private boolean started;
+    private boolean paused;
+    private boolean adaptive;
+    private int fastPeriodMs;
+    private int slowPeriodMs;
+    private int periodMs;
+    private int stablePolls;
+    private double minRttMs = Double.MAX_VALUE;
+
+    public StatsScheduler(Runnable pollTask) {
+        this.pollTask = pollTask;
+    }
+
+    /**
+     * Polls every |periodMs|, starting now. Replaces any previous schedule.
+     */
+    public synchronized void start(int periodMs) {
+        startInternal(false, periodMs, periodMs);
+    }
+
+    /**
+     * Polls every |fastPeriodMs| until the call is stable, then backs off to at most
+     * |slowPeriodMs|. Replaces any previous schedule.
+     */
+    public synchronized void startAdaptive(int fastPeriodMs, int slowPeriodMs) {
+        if (slowPeriodMs < fastPeriodMs) {
+            throw new IllegalArgumentException("Slow period " + slowPeriodMs
+                    + "ms is shorter than fast period " + fastPeriodMs + "ms");
+        }
+        startInternal(true, fastPeriodMs, slowPeriodMs);
+    }
+
+    public synchronized void stop() {
+        started = false;
+        paused = false;
+        cancelPending();
+    }
+
+    /**
+     * Suspends polling until {@link #resume()}, keeping the schedule.
+     */
+    public synchronized void pause() {
+        if (!started || paused) {
+            return;
+        }
+        paused = true;
+        cancelPending();
+    }
+
+    public synchronized void resume() {
+        if (!started || !paused) {
+            return;
+        }
+        paused = false;
+        // Conditions may have changed while paused; look closely again first.
+        markUnstable();
+        schedule(0);
+    }
+
+    public synchronized boolean isRunning() {
+        return started && !paused;
+    }
+
+    public synchronized int getPeriodMs() {
+        return periodMs;
+    }
+
+    /**
+     * Switches an adaptive schedule back to the fast period, e.g. while ICE is
+     * (re)connecting. The next poll is brought forward if it was further away.
+     */
+    public synchronized void markUnstable() {
+        if (!adaptive) {
+            return;
+        }
+        stablePolls = 0;
+        if (periodMs == fastPeriodMs) {
+            return;
+        }
+        periodMs = fastPeriodMs;
+        if (started && !paused && pending != null
+                && pending.getDelay(TimeUnit.MILLISECONDS) > fastPeriodMs) {
+            cancelPending();
+            schedule(fastPeriodMs);
+        }
+    }
+
+    @Override
+    public void onStatsDelta(StatsDelta delta) {
+        boolean degraded = Math.max(delta.videoSendLossPercent, delta.videoReceiveLossPercent)
+                > LOSS_DEGRADATION_PERCENT
+                || Math.max(delta.audioSendLossPercent, delta.audioReceiveLossPercent)
+                > LOSS_DEGRADATION_PERCENT
+                || delta.qualityLimitationReason == OutboundRtpStats.QUALITY_LIMITATION_BANDWIDTH;
+        synchronized (this) {
+            if (delta.rttMs >= 0) {
+                minRttMs = Math.min(minRttMs, delta.rttMs);
+                degraded |= delta.rttMs > RTT_DEGRADATION_FLOOR_MS
+                        && delta.rttMs > minRttMs * RTT_DEGRADATION_FACTOR;
+            }
+            if (degraded) {
+                markUnstable();
+            } else if (adaptive && ++stablePolls >= STABLE_POLLS_BEFORE_BACKOFF) {
+                stablePolls = 0;
+                // Takes effect from the next tick.
+                periodMs = Math.min(slowPeriodMs, periodMs * 2);
+            }
+        }
+    }
+
+    private void startInternal(boolean adaptive, int fastPeriodMs, int slowPeriodMs) {
+        if (fastPeriodMs <= 0) {
+            throw new IllegalArgumentException("Stats period should be positive: " + fastPeriodMs);
+        }
+        cancelPending();
+        this.adaptive = adaptive;
+        this.fastPeriodMs = fastPeriodMs;
+        this.slowPeriodMs = slowPeriodMs;
+        this.periodMs = fastPeriodMs;
+        this.stablePolls = 0;
+        this.minRttMs = Double.MAX_VALUE;
+        started = true;
+        paused = false;
+        schedule(0);
+    }
+
+    private void onTick(int tickGeneration) {
+        synchronized (this) {
+            if (!started || paused || tickGeneration != generation) {
+                return;
+            }
+            schedule(periodMs);
+        }
+        pollTask.run();
+    }
+
+    // Must be called with |this| locked.
+    private void schedule(int delayMs) {
+        final int tickGeneration = generation;
+        pending = TIMER.schedule(() -> onTick(tickGeneration), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Must be called with |this| locked.
+    private void cancelPending() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
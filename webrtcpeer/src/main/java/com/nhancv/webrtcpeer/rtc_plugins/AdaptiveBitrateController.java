@@ -0,0 +1,167 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import com.nhancv.webrtcpeer.rtc_peer.PeerConnectionClient;
+import com.nhancv.webrtcpeer.rtc_peer.stats.OutboundRtpStats;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsDelta;
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsDeltaListener;
+
+import org.webrtc.CameraEnumerationAndroid.CaptureFormat;
+
+import java.util.List;
+
+import timber.log.Timber;
+
+/**
+ * AdaptiveBitrateController
+ * <p>
+ * Description: Closed-loop controller that turns the per-interval stats of a call into a
+ * video bitrate cap and a capture format. The target bitrate is cut multiplicatively on
+ * loss, RTT build-up or a drop of the available outgoing bitrate, and raised additively
+ * after a run of healthy intervals. The capture format is picked from the target with the
+ * same bandwidth-to-format mapping as the {@link CaptureQualityController} seekbar.
+ * <p>
+ * Hysteresis keeps it from oscillating: bitrate changes under 10% are not applied, and a
+ * new format must be chosen for several consecutive intervals (more for upgrades than for
+ * downgrades) before the capturer is reconfigured.
+ */
+public class AdaptiveBitrateController implements StatsDeltaListener {
+    private static final String TAG = "ABRController";
+    // Loss above which the target is cut, and below which it may grow.
+    static final double HIGH_LOSS_PERCENT = 10;
+    static final double LOW_LOSS_PERCENT = 2;
+    // RTT counts as congested above this and above RTT_FACTOR times the lowest RTT seen.
+    private static final double CONGESTED_RTT_MS = 250;
+    private static final double RTT_FACTOR = 2;
+    private static final double DECREASE_FACTOR = 0.85;
+    private static final int INCREASE_STEP_KBPS = 50;
+    // Share of the available outgoing bitrate the target may use.
+    private static final double AVAILABLE_BITRATE_HEADROOM = 0.9;
+    static final int HEALTHY_INTERVALS_BEFORE_INCREASE = 3;
+    static final int FORMAT_DOWNGRADE_HOLD_INTERVALS = 2;
+    static final int FORMAT_UPGRADE_HOLD_INTERVALS = 5;
+    private static final double MIN_APPLIED_BITRATE_CHANGE = 0.1;
+    // Average encoded bits per captured pixel, used to turn a bitrate into a pixel rate.
+    private static final double BITS_PER_PIXEL = 0.1;
+
+    /**
+     * Receives the decisions of the controller.
+     */
+    public interface Actuator {
+        void setVideoMaxBitrate(int maxBitrateKbps);
+
+        void changeCaptureFormat(int width, int height, int framerate);
+    }
+
+    private final Actuator actuator;
+    private final List<CaptureFormat> formats;
+    private final int minKbps;
+    private final int maxKbps;
+    private double targetKbps;
+    private double minRttMs = Double.MAX_VALUE;
+    private int healthyIntervals;
+    private int appliedKbps = -1;
+    private CaptureFormat appliedFormat;
+    private CaptureFormat candidateFormat;
+    private int candidateIntervals;
+
+    public AdaptiveBitrateController(Actuator actuator, int minKbps, int maxKbps) {
+        this(actuator, CaptureQualityController.FORMATS, minKbps, maxKbps);
+    }
+
+    public AdaptiveBitrateController(
+            Actuator actuator, List<CaptureFormat> formats, int minKbps, int maxKbps) {
+        if (minKbps <= 0 || maxKbps < minKbps) {
+            throw new IllegalArgumentException("Invalid bitrate range: " + minKbps + "-" + maxKbps);
+        }
+        this.actuator = actuator;
+        this.formats = formats;
+        this.minKbps = minKbps;
+        this.maxKbps = maxKbps;
+        this.targetKbps = maxKbps;
+    }
+
+    /**
+     * Creates a controller driving |client| and subscribes it to the client's stats. Stats
+     * polling has to be enabled on the client.
+     */
+    public static AdaptiveBitrateController attach(
+            final PeerConnectionClient client, int minKbps, int maxKbps) {
+        final AdaptiveBitrateController controller = new AdaptiveBitrateController(new Actuator() {
+            @Override
+            public void setVideoMaxBitrate(int maxBitrateKbps) {
+                client.setVideoMaxBitrate(maxBitrateKbps);
+            }
+
+            @Override
+            public void changeCaptureFormat(int width, int height, int framerate) {
+                client.changeCaptureFormat(width, height, framerate);
+            }
+        }, minKbps, maxKbps);
+        client.addStatsDeltaListener(controller);
+        return controller;
+    }
+
+    public int getTargetKbps() {
+        return (int) targetKbps;
+    }
+
+    @Override
+    public void onStatsDelta(StatsDelta delta) {
+        if (delta.rttMs >= 0) {
+            minRttMs = Math.min(minRttMs, delta.rttMs);
+        }
+        final boolean lossy = delta.videoSendLossPercent > HIGH_LOSS_PERCENT;
+        final boolean rttBuildUp = delta.rttMs > CONGESTED_RTT_MS && delta.rttMs > minRttMs * RTT_FACTOR;
+        final double availableKbps = delta.availableOutgoingKbps >= 0
+                ? delta.availableOutgoingKbps * AVAILABLE_BITRATE_HEADROOM : Double.MAX_VALUE;
+
+        if (lossy || rttBuildUp) {
+            healthyIntervals = 0;
+            targetKbps *= DECREASE_FACTOR;
+        } else if (delta.videoSendLossPercent < LOW_LOSS_PERCENT
+                && delta.qualityLimitationReason != OutboundRtpStats.QUALITY_LIMITATION_BANDWIDTH) {
+            if (++healthyIntervals >= HEALTHY_INTERVALS_BEFORE_INCREASE) {
+                targetKbps += INCREASE_STEP_KBPS;
+            }
+        } else {
+            healthyIntervals = 0;
+        }
+        targetKbps = Math.max(minKbps, Math.min(Math.min(maxKbps, availableKbps), targetKbps));
+        apply();
+    }
+
+    private void apply() {
+        final int kbps = (int) targetKbps;
+        if (appliedKbps < 0 || Math.abs(kbps - appliedKbps) > appliedKbps * MIN_APPLIED_BITRATE_CHANGE) {
+            appliedKbps = kbps;
+            Timber.tag(TAG).d("Video max bitrate: %d kbps", kbps);
+            actuator.setVideoMaxBitrate(kbps);
+        }
+
+        // Same units as CaptureQualityController: millipixels per second.
+        final double targetBandwidth = targetKbps * 1000 / BITS_PER_PIXEL * 1000;
+        final CaptureFormat format = CaptureQualityController.chooseFormat(formats, targetBandwidth);
+        if (format == appliedFormat) {
+            candidateFormat = null;
+            candidateIntervals = 0;
+            return;
+        }
+        if (format != candidateFormat) {
+            candidateFormat = format;
+            candidateIntervals = 0;
+        }
+        final boolean upgrade = appliedFormat != null
+                && format.width * format.height > appliedFormat.width * appliedFormat.height;
+        final int hold = appliedFormat == null ? 1
+                : upgrade ? FORMAT_UPGRADE_HOLD_INTERVALS : FORMAT_DOWNGRADE_HOLD_INTERVALS;
+        if (++candidateIntervals < hold) {
+            return;
+        }
+        final int framerate = CaptureQualityController.calculateFramerate(targetBandwidth, format);
+        appliedFormat = format;
+        candidateFormat = null;
+        candidateIntervals = 0;
+        Timber.tag(TAG).d("Capture format: %dx%d@%d", format.width, format.height, framerate);
+        actuator.changeCaptureFormat(format.width, format.height, framerate);
+    }
+}
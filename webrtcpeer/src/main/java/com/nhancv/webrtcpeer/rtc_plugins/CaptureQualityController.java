@@ -28,7 +28,7 @@ import org.webrtc.CameraEnumerationAndroid.CaptureFormat;
  * Control capture format based on a seekbar listener.
  */
 public class CaptureQualityController implements SeekBar.OnSeekBarChangeListener {
-    private final List<CaptureFormat> formats =
+    static final List<CaptureFormat> FORMATS =
             Arrays.asList(new CaptureFormat(1280, 720, 0, 30000), new CaptureFormat(960, 540, 0, 30000),
                     new CaptureFormat(640, 480, 0, 30000), new CaptureFormat(480, 360, 0, 30000),
                     new CaptureFormat(320, 240, 0, 30000), new CaptureFormat(256, 144, 0, 30000));
@@ -39,7 +39,6 @@ public class CaptureQualityController implements SeekBar.OnSeekBarChangeListener
     private int width;
     private int height;
     private int framerate;
-    private double targetBandwidth;
 
     public CaptureQualityController(
             TextView captureFormatText, OnCallEvents callEvents) {
@@ -47,23 +46,6 @@ public class CaptureQualityController implements SeekBar.OnSeekBarChangeListener
         this.callEvents = callEvents;
     }
 
-    private final Comparator<CaptureFormat> compareFormats = new Comparator<CaptureFormat>() {
-        @Override
-        public int compare(CaptureFormat first, CaptureFormat second) {
-            int firstFps = calculateFramerate(targetBandwidth, first);
-            int secondFps = calculateFramerate(targetBandwidth, second);
-
-            if ((firstFps >= FRAMERATE_THRESHOLD && secondFps >= FRAMERATE_THRESHOLD)
-                    || firstFps == secondFps) {
-                // Compare resolution.
-                return first.width * first.height - second.width * second.height;
-            } else {
-                // Compare fps.
-                return firstFps - secondFps;
-            }
-        }
-    };
-
     @Override
     public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
         if (progress == 0) {
@@ -74,23 +56,10 @@ public class CaptureQualityController implements SeekBar.OnSeekBarChangeListener
             return;
         }
 
-        // Extract max bandwidth (in millipixels / second).
-        long maxCaptureBandwidth = Long.MIN_VALUE;
-        for (CaptureFormat format : formats) {
-            maxCaptureBandwidth =
-                    Math.max(maxCaptureBandwidth, (long) format.width * format.height * format.framerate.max);
-        }
-
-        // Fraction between 0 and 1.
-        double bandwidthFraction = (double) progress / 100.0;
-        // Make a log-scale transformation, still between 0 and 1.
-        final double kExpConstant = 3.0;
-        bandwidthFraction =
-                (Math.exp(kExpConstant * bandwidthFraction) - 1) / (Math.exp(kExpConstant) - 1);
-        targetBandwidth = bandwidthFraction * maxCaptureBandwidth;
+        final double targetBandwidth = progressToBandwidth(FORMATS, progress);
 
         // Choose the best format given a target bandwidth.
-        final CaptureFormat bestFormat = Collections.max(formats, compareFormats);
+        final CaptureFormat bestFormat = chooseFormat(FORMATS, targetBandwidth);
         width = bestFormat.width;
         height = bestFormat.height;
         framerate = calculateFramerate(targetBandwidth, bestFormat);
@@ -108,8 +77,46 @@ public class CaptureQualityController implements SeekBar.OnSeekBarChangeListener
         callEvents.onCaptureFormatChange(width, height, framerate);
     }
 
+    // Map a 0-100 seekbar position to a target capture bandwidth (in millipixels / second).
+    static double progressToBandwidth(List<CaptureFormat> formats, int progress) {
+        // Extract max bandwidth (in millipixels / second).
+        long maxCaptureBandwidth = Long.MIN_VALUE;
+        for (CaptureFormat format : formats) {
+            maxCaptureBandwidth =
+                    Math.max(maxCaptureBandwidth, (long) format.width * format.height * format.framerate.max);
+        }
+
+        // Fraction between 0 and 1.
+        double bandwidthFraction = (double) progress / 100.0;
+        // Make a log-scale transformation, still between 0 and 1.
+        final double kExpConstant = 3.0;
+        bandwidthFraction =
+                (Math.exp(kExpConstant * bandwidthFraction) - 1) / (Math.exp(kExpConstant) - 1);
+        return bandwidthFraction * maxCaptureBandwidth;
+    }
+
+    // Choose the best format given a target bandwidth.
+    static CaptureFormat chooseFormat(List<CaptureFormat> formats, final double targetBandwidth) {
+        return Collections.max(formats, new Comparator<CaptureFormat>() {
+            @Override
+            public int compare(CaptureFormat first, CaptureFormat second) {
+                int firstFps = calculateFramerate(targetBandwidth, first);
+                int secondFps = calculateFramerate(targetBandwidth, second);
+
+                if ((firstFps >= FRAMERATE_THRESHOLD && secondFps >= FRAMERATE_THRESHOLD)
+                        || firstFps == secondFps) {
+                    // Compare resolution.
+                    return first.width * first.height - second.width * second.height;
+                } else {
+                    // Compare fps.
+                    return firstFps - secondFps;
+                }
+            }
+        });
+    }
+
     // Return the highest frame rate possible based on bandwidth and format.
-    private int calculateFramerate(double bandwidth, CaptureFormat format) {
+    static int calculateFramerate(double bandwidth, CaptureFormat format) {
         return (int) Math.round(
                 Math.min(format.framerate.max, (int) Math.round(bandwidth / (format.width * format.height)))
                         / 1000.0);
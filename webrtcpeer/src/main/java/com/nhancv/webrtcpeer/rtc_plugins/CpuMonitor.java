@@ -108,7 +108,7 @@ class CpuMonitor {
   @Nullable
   private ProcStat lastProcStat;
 
-  private static class ProcStat {
+  static class ProcStat {
     final long userTime;
     final long systemTime;
     final long idleTime;
@@ -120,7 +120,7 @@ class CpuMonitor {
     }
   }
 
-  private static class MovingAverage {
+  static class MovingAverage {
     private final int size;
     private double sum;
     private double currentValue;
@@ -489,31 +489,11 @@ class CpuMonitor {
    * Read the current utilization of all CPUs using the cumulative first line
    * of /proc/stat.
    */
-  @SuppressWarnings("StringSplitter")
   private @Nullable ProcStat readProcStat() {
-    long userTime = 0;
-    long systemTime = 0;
-    long idleTime = 0;
     try (FileInputStream stream = new FileInputStream("/proc/stat");
          InputStreamReader streamReader = new InputStreamReader(stream, StandardCharsets.UTF_8);
          BufferedReader reader = new BufferedReader(streamReader)) {
-      // line should contain something like this:
-      // cpu  5093818 271838 3512830 165934119 101374 447076 272086 0 0 0
-      //       user    nice  system     idle   iowait  irq   softirq
-      String line = reader.readLine();
-      String[] lines = line.split("\\s+");
-      int length = lines.length;
-      if (length >= 5) {
-        userTime = parseLong(lines[1]); // user
-        userTime += parseLong(lines[2]); // nice
-        systemTime = parseLong(lines[3]); // system
-        idleTime = parseLong(lines[4]); // idle
-      }
-      if (length >= 8) {
-        userTime += parseLong(lines[5]); // iowait
-        systemTime += parseLong(lines[6]); // irq
-        systemTime += parseLong(lines[7]); // softirq
-      }
+      return parseProcStat(reader.readLine());
     } catch (FileNotFoundException e) {
       Timber.tag(TAG).e(e, "Cannot open /proc/stat for reading");
       return null;
@@ -521,6 +501,32 @@ class CpuMonitor {
       Timber.tag(TAG).e(e, "Problems parsing /proc/stat");
       return null;
     }
+  }
+
+  /*
+   * Parse the cumulative first line of /proc/stat.
+   */
+  @SuppressWarnings("StringSplitter")
+  static ProcStat parseProcStat(String line) {
+    long userTime = 0;
+    long systemTime = 0;
+    long idleTime = 0;
+    // line should contain something like this:
+    // cpu  5093818 271838 3512830 165934119 101374 447076 272086 0 0 0
+    //       user    nice  system     idle   iowait  irq   softirq
+    String[] lines = line.split("\\s+");
+    int length = lines.length;
+    if (length >= 5) {
+      userTime = parseLong(lines[1]); // user
+      userTime += parseLong(lines[2]); // nice
+      systemTime = parseLong(lines[3]); // system
+      idleTime = parseLong(lines[4]); // idle
+    }
+    if (length >= 8) {
+      userTime += parseLong(lines[5]); // iowait
+      systemTime += parseLong(lines[6]); // irq
+      systemTime += parseLong(lines[7]); // softirq
+    }
     return new ProcStat(userTime, systemTime, idleTime);
   }
 }
@@ -0,0 +1,177 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * FrameTap
+ * <p>
+ * Description: Video sink that hands frames to a slow consumer, e.g. on-device analysis,
+ * without ever blocking the thread delivering them. Frames are retained into a bounded
+ * queue and processed on a worker thread of the tap; when the consumer falls behind the
+ * oldest queued frame is dropped.
+ * <p>
+ * Texture frames have to be read back to I420 before they are queued, because the capturer
+ * can not produce the next texture frame while one is retained. The readback is costly and
+ * runs on the delivering thread, so it is only done while the worker is idle; texture
+ * frames arriving while the consumer is busy are dropped without being read back.
+ */
+public class FrameTap implements VideoSink {
+    private static final String TAG = "FrameTap";
+
+    public interface Consumer {
+        /**
+         * Called on the worker thread. |frame| is released after the call returns; retain it
+         * to keep it longer, or copy it with an {@link I420BufferPool} to keep its pixels
+         * without holding on to the source buffer.
+         */
+        void onFrame(VideoFrame frame);
+    }
+
+    private final Consumer consumer;
+    private final int capacity;
+    @Nullable
+    private final I420BufferPool pool;
+    // Guards |queue| and |running|.
+    private final Object lock = new Object();
+    private final ArrayDeque<VideoFrame> queue;
+    private final Thread worker;
+    private boolean running = true;
+    // Whether the worker waits for a frame; written under |lock|, read without it.
+    private volatile boolean idle;
+    private final AtomicLong processedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    public FrameTap(String name, int capacity, Consumer consumer) {
+        this(name, capacity, null, consumer);
+    }
+
+    /**
+     * Like the constructor above, copying every queued frame into |pool|. No source buffer
+     * is then held while a frame waits, which matters for sources with few buffers such as
+     * the camera, and the copies reuse the pool's memory.
+     */
+    public FrameTap(String name, int capacity, @Nullable I420BufferPool pool, Consumer consumer) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is below 1");
+        }
+        this.consumer = consumer;
+        this.capacity = capacity;
+        this.pool = pool;
+        this.queue = new ArrayDeque<>(capacity);
+        this.worker = new Thread(this::processFrames, "FrameTap-" + name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void onFrame(VideoFrame frame) {
+        final boolean texture = frame.getBuffer() instanceof VideoFrame.TextureBuffer;
+        if (texture && !idle) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        final VideoFrame queued;
+        if (pool != null) {
+            queued = pool.copy(frame);
+        } else if (texture) {
+            final VideoFrame.I420Buffer i420 = frame.getBuffer().toI420();
+            queued = i420 == null ? null : new VideoFrame(i420, frame.getRotation(), frame.getTimestampNs());
+        } else {
+            frame.retain();
+            queued = frame;
+        }
+        if (queued == null) {
+            // The buffer could not be read back, e.g. its texture is gone.
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        VideoFrame dropped = null;
+        synchronized (lock) {
+            if (!running) {
+                dropped = queued;
+            } else {
+                if (queue.size() == capacity) {
+                    dropped = queue.poll();
+                }
+                queue.add(queued);
+                idle = false;
+                lock.notify();
+            }
+        }
+        if (dropped != null) {
+            droppedFrames.incrementAndGet();
+            dropped.release();
+        }
+    }
+
+    /**
+     * Stops the worker after the frame it is processing and releases the queued frames. The
+     * tap drops every frame delivered afterwards.
+     */
+    public void release() {
+        synchronized (lock) {
+            running = false;
+            lock.notify();
+        }
+    }
+
+    /**
+     * Returns the number of frames handed to the consumer and released again.
+     */
+    public long getProcessedFrames() {
+        return processedFrames.get();
+    }
+
+    /**
+     * Returns the number of frames dropped because the consumer fell behind or the tap was
+     * released, including texture frames skipped while the consumer was busy.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    private void processFrames() {
+        while (true) {
+            final VideoFrame frame;
+            synchronized (lock) {
+                while (running && queue.isEmpty()) {
+                    idle = true;
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                idle = false;
+                if (!running) {
+                    break;
+                }
+                frame = queue.poll();
+            }
+            try {
+                consumer.onFrame(frame);
+            } catch (RuntimeException e) {
+                Timber.tag(TAG).e(e, "Frame consumer failed");
+            } finally {
+                frame.release();
+            }
+            processedFrames.incrementAndGet();
+        }
+        final VideoFrame[] remaining;
+        synchronized (lock) {
+            remaining = queue.toArray(new VideoFrame[0]);
+            queue.clear();
+        }
+        for (VideoFrame frame : remaining) {
+            droppedFrames.incrementAndGet();
+            frame.release();
+        }
+    }
+}
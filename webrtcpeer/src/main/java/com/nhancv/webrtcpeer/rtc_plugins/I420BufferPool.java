@@ -0,0 +1,170 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.webrtc.JavaI420Buffer;
+import org.webrtc.VideoFrame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
+
+/**
+ * I420BufferPool
+ * <p>
+ * Description: Copies frames into I420 buffers whose planes live in pooled direct byte
+ * buffers, for consumers that keep CPU pixels beyond the frame callback, e.g. recording or
+ * analysis queues. Releasing a copy returns its memory to the pool, so a steady stream of
+ * frames of one size stops allocating once the pool is warm. Only buffers of the latest
+ * frame size are pooled; a size change drops the others. Copies are tightly packed, with
+ * strides equal to the plane widths. Can be used from any thread.
+ */
+public class I420BufferPool {
+    private final int maxFreeBuffers;
+    // Guards the fields below.
+    private final Object lock = new Object();
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private int width;
+    private int height;
+    private boolean released;
+    private final AtomicLong allocatedBuffers = new AtomicLong();
+    private final AtomicLong reusedBuffers = new AtomicLong();
+
+    /**
+     * @param maxFreeBuffers max number of released copies kept for reuse, usually the
+     *                       number of frames the consumer holds at once.
+     */
+    public I420BufferPool(int maxFreeBuffers) {
+        if (maxFreeBuffers < 1) {
+            throw new IllegalArgumentException("Max free buffers " + maxFreeBuffers + " is below 1");
+        }
+        this.maxFreeBuffers = maxFreeBuffers;
+    }
+
+    /**
+     * Returns a pooled I420 copy of |frame| with the same rotation and timestamp, or null if
+     * |frame| could not be converted to I420. The caller owns the copy and must release it;
+     * |frame| is left untouched.
+     */
+    @Nullable
+    public VideoFrame copy(VideoFrame frame) {
+        final VideoFrame.I420Buffer copy = copy(frame.getBuffer());
+        return copy == null ? null : new VideoFrame(copy, frame.getRotation(), frame.getTimestampNs());
+    }
+
+    /**
+     * Returns a pooled I420 copy of |buffer|, which the caller must release. I420 buffers are
+     * copied directly; other buffers, e.g. textures, are converted with
+     * {@link VideoFrame.Buffer#toI420()} first and only the copy is pooled. Returns null,
+     * without taking a pooled buffer, if the conversion fails.
+     */
+    @Nullable
+    public VideoFrame.I420Buffer copy(VideoFrame.Buffer buffer) {
+        // Retains and returns |buffer| itself if it is I420 already.
+        final VideoFrame.I420Buffer source = buffer.toI420();
+        if (source == null) {
+            return null;
+        }
+        try {
+            return copyI420(source);
+        } finally {
+            source.release();
+        }
+    }
+
+    /**
+     * Drops the free buffers. Copies released afterwards are not kept, copies made
+     * afterwards are not pooled.
+     */
+    public void release() {
+        synchronized (lock) {
+            released = true;
+            freeBuffers.clear();
+        }
+    }
+
+    /**
+     * Returns the number of direct buffers allocated because the pool had no free one.
+     */
+    public long getAllocatedBuffers() {
+        return allocatedBuffers.get();
+    }
+
+    /**
+     * Returns the number of copies served from a free buffer.
+     */
+    public long getReusedBuffers() {
+        return reusedBuffers.get();
+    }
+
+    private VideoFrame.I420Buffer copyI420(VideoFrame.I420Buffer source) {
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        final int chromaWidth = (width + 1) / 2;
+        final int chromaHeight = (height + 1) / 2;
+        final int sizeY = width * height;
+        final int sizeUV = chromaWidth * chromaHeight;
+        final ByteBuffer storage = obtain(width, height, sizeY + 2 * sizeUV);
+        final ByteBuffer dataY = plane(storage, 0, sizeY);
+        final ByteBuffer dataU = plane(storage, sizeY, sizeUV);
+        final ByteBuffer dataV = plane(storage, sizeY + sizeUV, sizeUV);
+        copyPlane(source.getDataY(), source.getStrideY(), dataY, width, width, height);
+        copyPlane(source.getDataU(), source.getStrideU(), dataU, chromaWidth, chromaWidth, chromaHeight);
+        copyPlane(source.getDataV(), source.getStrideV(), dataV, chromaWidth, chromaWidth, chromaHeight);
+        return JavaI420Buffer.wrap(width, height, dataY, width, dataU, chromaWidth, dataV, chromaWidth,
+                () -> recycle(storage, width, height));
+    }
+
+    private ByteBuffer obtain(int width, int height, int capacity) {
+        synchronized (lock) {
+            if (width != this.width || height != this.height) {
+                freeBuffers.clear();
+                this.width = width;
+                this.height = height;
+            }
+            final ByteBuffer buffer = freeBuffers.poll();
+            if (buffer != null) {
+                reusedBuffers.incrementAndGet();
+                return buffer;
+            }
+        }
+        allocatedBuffers.incrementAndGet();
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    private void recycle(ByteBuffer storage, int width, int height) {
+        synchronized (lock) {
+            if (!released && width == this.width && height == this.height
+                    && freeBuffers.size() < maxFreeBuffers) {
+                freeBuffers.add(storage);
+            }
+        }
+    }
+
+    private static ByteBuffer plane(ByteBuffer storage, int offset, int size) {
+        final ByteBuffer plane = storage.duplicate();
+        plane.limit(offset + size).position(offset);
+        return plane.slice();
+    }
+
+    private static void copyPlane(ByteBuffer src, int srcStride, ByteBuffer dst, int dstStride, int width,
+                                  int height) {
+        if (width == 0 || height == 0) {
+            return;
+        }
+        // Work on views, the buffers' positions are used by the caller.
+        final ByteBuffer from = src.duplicate();
+        final ByteBuffer to = dst.duplicate();
+        if (srcStride == dstStride) {
+            from.limit(srcStride * (height - 1) + width).position(0);
+            to.position(0);
+            to.put(from);
+            return;
+        }
+        for (int row = 0; row < height; row++) {
+            from.limit(row * srcStride + width).position(row * srcStride);
+            to.position(row * dstStride);
+            to.put(from);
+        }
+    }
+}
@@ -3,30 +3,110 @@ package com.nhancv.webrtcpeer.rtc_plugins;
 import org.webrtc.VideoFrame;
 import org.webrtc.VideoSink;
 
-import timber.log.Timber;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
 
 /**
  * ProxyVideoSink
  * <p>
  * Date: 2020/9/2/0002 9:55
- * Description:
+ * Description: Forwards frames to a set of targets that can be changed from any thread
+ * while frames are delivered. The targets are a copy-on-write array read once per frame,
+ * so {@link #onFrame} takes no lock and allocates nothing; frames arriving while there is
+ * no target are counted instead of logged. When there are several targets the frame is
+ * retained for the whole fan-out, so a target releasing it too early can not invalidate it
+ * for the next ones.
  *
  * @author z
  * @version 1.0.0
  */
 public class ProxyVideoSink implements VideoSink {
-    private VideoSink target;
+    private static final VideoSink[] NO_TARGETS = new VideoSink[0];
+
+    // Guards writes of |targets|; frame delivery only reads the volatile array.
+    private final Object targetsLock = new Object();
+    private volatile VideoSink[] targets = NO_TARGETS;
+    private final AtomicLong deliveredFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
 
     @Override
-    synchronized public void onFrame(VideoFrame frame) {
-        if (target == null) {
-            Timber.tag("ProxyVideoSink").d("Dropping frame in proxy because target is null.");
+    public void onFrame(VideoFrame frame) {
+        final VideoSink[] targets = this.targets;
+        if (targets.length == 0) {
+            droppedFrames.incrementAndGet();
             return;
         }
-        target.onFrame(frame);
+        if (targets.length == 1) {
+            targets[0].onFrame(frame);
+        } else {
+            frame.retain();
+            try {
+                for (VideoSink target : targets) {
+                    target.onFrame(frame);
+                }
+            } finally {
+                frame.release();
+            }
+        }
+        deliveredFrames.incrementAndGet();
+    }
+
+    /**
+     * Replaces all targets with |target|, or removes them if it is null.
+     */
+    public void setTarget(@Nullable VideoSink target) {
+        synchronized (targetsLock) {
+            targets = target == null ? NO_TARGETS : new VideoSink[]{target};
+        }
+    }
+
+    public void addTarget(VideoSink target) {
+        synchronized (targetsLock) {
+            final VideoSink[] current = targets;
+            for (VideoSink sink : current) {
+                if (sink == target) {
+                    return;
+                }
+            }
+            final VideoSink[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = target;
+            targets = updated;
+        }
+    }
+
+    public void removeTarget(VideoSink target) {
+        synchronized (targetsLock) {
+            final VideoSink[] current = targets;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != target) {
+                    continue;
+                }
+                final VideoSink[] updated = new VideoSink[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                targets = updated.length == 0 ? NO_TARGETS : updated;
+                return;
+            }
+        }
+    }
+
+    public int getTargetCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the number of frames forwarded to at least one target.
+     */
+    public long getDeliveredFrames() {
+        return deliveredFrames.get();
     }
 
-    synchronized public void setTarget(VideoSink target) {
-        this.target = target;
+    /**
+     * Returns the number of frames dropped because there was no target.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
     }
 }
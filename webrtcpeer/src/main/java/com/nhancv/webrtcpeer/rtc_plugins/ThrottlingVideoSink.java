@@ -0,0 +1,107 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ThrottlingVideoSink
+ * <p>
+ * Description: Decorator that passes at most |maxFps| frames per second to its target and,
+ * when a max size is set, scales frames down to fit it, keeping the aspect ratio. Meant
+ * for small views such as thumbnails in a grid, which do not need every full resolution
+ * frame. Frames are paced on their timestamps. Texture frames are scaled lazily by the
+ * renderer, I420 frames are scaled on the calling thread. Settings can be changed from any
+ * thread; frames must be delivered from one thread at a time, as WebRTC does.
+ */
+public class ThrottlingVideoSink implements VideoSink {
+    private final VideoSink target;
+    private volatile long frameIntervalNs;
+    // Max width in the high and max height in the low 32 bits, so both change atomically.
+    // 0 means no scaling.
+    private volatile long maxSize;
+    private long nextFrameTimestampNs = Long.MIN_VALUE;
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    public ThrottlingVideoSink(VideoSink target, int maxFps) {
+        this.target = target;
+        setMaxFps(maxFps);
+    }
+
+    /**
+     * Sets the max frames per second passed on; 0 passes every frame.
+     */
+    public void setMaxFps(int maxFps) {
+        if (maxFps < 0) {
+            throw new IllegalArgumentException("Negative max fps " + maxFps);
+        }
+        frameIntervalNs = maxFps == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxFps;
+    }
+
+    /**
+     * Scales frames down to fit |width| x |height|, e.g. the size of the view rendering them.
+     * 0 for either disables scaling. Frames are never scaled up.
+     */
+    public void setMaxSize(int width, int height) {
+        maxSize = width <= 0 || height <= 0 ? 0 : ((long) width << 32) | height;
+    }
+
+    /**
+     * Returns the number of frames skipped to keep the max fps.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    @Override
+    public void onFrame(VideoFrame frame) {
+        if (!shouldDeliver(frame.getTimestampNs())) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        final long size = maxSize;
+        if (size == 0) {
+            target.onFrame(frame);
+            return;
+        }
+        final int maxWidth = (int) (size >>> 32);
+        final int maxHeight = (int) size;
+        final int rotatedWidth = frame.getRotatedWidth();
+        final int rotatedHeight = frame.getRotatedHeight();
+        final float scale = Math.min((float) maxWidth / rotatedWidth, (float) maxHeight / rotatedHeight);
+        if (scale >= 1) {
+            target.onFrame(frame);
+            return;
+        }
+        final VideoFrame.Buffer buffer = frame.getBuffer();
+        // I420 planes need even dimensions.
+        final int scaledWidth = Math.max(2, Math.round(buffer.getWidth() * scale) & ~1);
+        final int scaledHeight = Math.max(2, Math.round(buffer.getHeight() * scale) & ~1);
+        final VideoFrame scaledFrame = new VideoFrame(
+                buffer.cropAndScale(0, 0, buffer.getWidth(), buffer.getHeight(), scaledWidth, scaledHeight),
+                frame.getRotation(), frame.getTimestampNs());
+        try {
+            target.onFrame(scaledFrame);
+        } finally {
+            scaledFrame.release();
+        }
+    }
+
+    private boolean shouldDeliver(long timestampNs) {
+        final long intervalNs = frameIntervalNs;
+        if (intervalNs == 0) {
+            return true;
+        }
+        if (timestampNs < nextFrameTimestampNs) {
+            return false;
+        }
+        // Pace on a fixed grid so the average rate matches |maxFps|, but start over after a
+        // gap instead of passing a burst of frames to catch up.
+        final boolean restart = nextFrameTimestampNs == Long.MIN_VALUE
+                || timestampNs - nextFrameTimestampNs > 2 * intervalNs;
+        nextFrameTimestampNs = restart ? timestampNs + intervalNs : nextFrameTimestampNs + intervalNs;
+        return true;
+    }
+}
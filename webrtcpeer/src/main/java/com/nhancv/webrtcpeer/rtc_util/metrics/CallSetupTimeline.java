@@ -0,0 +1,117 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CallSetupTimeline
+ * <p>
+ * Description: Monotonic timestamps of the setup steps of one call, relative to the moment
+ * the call started. Each phase keeps the time it was first reached; later marks of the
+ * same phase are ignored, so e.g. {@link Phase#FIRST_LOCAL_CANDIDATE} stays the first one.
+ * Marking is lock-free and safe from any thread.
+ */
+public final class CallSetupTimeline {
+    private static final long NOT_REACHED = -1;
+
+    public enum Phase {
+        WEBRTC_INITIALIZED,
+        FACTORY_CREATED,
+        PEER_CONNECTION_CREATED,
+        TRACKS_CREATED,
+        LOCAL_SDP_CREATED,
+        LOCAL_SDP_SET,
+        REMOTE_SDP_SET,
+        FIRST_LOCAL_CANDIDATE,
+        FIRST_REMOTE_CANDIDATE,
+        ICE_CONNECTED,
+        DTLS_CONNECTED
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos;
+    // Phase ordinal -> nanos since |startNanos|, or NOT_REACHED.
+    private final AtomicLongArray elapsedNanos = new AtomicLongArray(PHASES.length);
+
+    public CallSetupTimeline() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Creates a timeline starting at |startNanos|, a {@link System#nanoTime()} value.
+     */
+    public CallSetupTimeline(long startNanos) {
+        this.startNanos = startNanos;
+        for (int i = 0; i < PHASES.length; i++) {
+            elapsedNanos.set(i, NOT_REACHED);
+        }
+    }
+
+    /**
+     * Records that |phase| is reached now. Returns false if it was reached before.
+     */
+    public boolean mark(Phase phase) {
+        return mark(phase, System.nanoTime());
+    }
+
+    public boolean mark(Phase phase, long nowNanos) {
+        return elapsedNanos.compareAndSet(phase.ordinal(), NOT_REACHED, Math.max(0, nowNanos - startNanos));
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isReached(Phase phase) {
+        return elapsedNanos.get(phase.ordinal()) != NOT_REACHED;
+    }
+
+    /**
+     * Returns true once media can flow, i.e. DTLS is connected.
+     */
+    public boolean isComplete() {
+        return isReached(Phase.DTLS_CONNECTED);
+    }
+
+    /**
+     * Returns the time from the call start to |phase|, or -1 if it is not reached yet.
+     */
+    public long getElapsedNanos(Phase phase) {
+        return elapsedNanos.get(phase.ordinal());
+    }
+
+    public long getElapsedMillis(Phase phase) {
+        final long nanos = getElapsedNanos(phase);
+        return nanos == NOT_REACHED ? NOT_REACHED : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Returns the time from |from| to |to|, or -1 if either is not reached yet.
+     */
+    public long getIntervalNanos(Phase from, Phase to) {
+        final long fromNanos = getElapsedNanos(from);
+        final long toNanos = getElapsedNanos(to);
+        return fromNanos == NOT_REACHED || toNanos == NOT_REACHED ? NOT_REACHED : toNanos - fromNanos;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("CallSetupTimeline{");
+        boolean first = true;
+        for (Phase phase : PHASES) {
+            final long nanos = getElapsedNanos(phase);
+            if (nanos == NOT_REACHED) {
+                continue;
+            }
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(phase).append('=')
+                    .append(String.format(Locale.US, "%.1fms", nanos / 1e6));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,171 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ExecutorMetrics
+ * <p>
+ * Description: Queue depth and per {@link TaskCategory} wait (enqueue to start) and run
+ * time histograms of one executor. Tasks are instrumented with {@link #wrap}; every
+ * counter is lock-free so the metrics can be read from any thread while the executor runs.
+ */
+public final class ExecutorMetrics {
+    private static final TaskCategory[] CATEGORIES = TaskCategory.values();
+
+    private final String name;
+    private final LatencyHistogram[] waitHistograms = new LatencyHistogram[CATEGORIES.length];
+    private final LatencyHistogram[] runHistograms = new LatencyHistogram[CATEGORIES.length];
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public ExecutorMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            waitHistograms[i] = new LatencyHistogram();
+            runHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of tasks enqueued and not started yet.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the highest queue depth seen since creation or the last {@link #reset()}.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Returns the number of tasks replaced by a newer task before they started.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the enqueue-to-start time histogram of |category|.
+     */
+    public LatencyHistogram getWaitHistogram(TaskCategory category) {
+        return waitHistograms[category.ordinal()];
+    }
+
+    /**
+     * Returns the run time histogram of |category|.
+     */
+    public LatencyHistogram getRunHistogram(TaskCategory category) {
+        return runHistograms[category.ordinal()];
+    }
+
+    public void reset() {
+        maxQueueDepth.set(queueDepth.get());
+        coalescedCount.set(0);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            waitHistograms[i].reset();
+            runHistograms[i].reset();
+        }
+    }
+
+    /**
+     * Marks |task| as enqueued now and returns a runnable that records its wait and run
+     * time under |category| when run. The returned runnable must be run exactly once.
+     */
+    public Runnable wrap(final TaskCategory category, final Runnable task) {
+        final long enqueuedAt = System.nanoTime();
+        onEnqueued();
+        return new Runnable() {
+            @Override
+            public void run() {
+                final long startedAt = System.nanoTime();
+                queueDepth.decrementAndGet();
+                getWaitHistogram(category).record(startedAt - enqueuedAt);
+                try {
+                    task.run();
+                } finally {
+                    getRunHistogram(category).record(System.nanoTime() - startedAt);
+                }
+            }
+        };
+    }
+
+    /**
+     * Runs |task| inline on the calling thread and records it with no wait time.
+     */
+    public void runInline(TaskCategory category, Runnable task) {
+        final long startedAt = System.nanoTime();
+        getWaitHistogram(category).record(0);
+        try {
+            task.run();
+        } finally {
+            getRunHistogram(category).record(System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Undoes the queue depth increment of a wrapped task that will never run, e.g. because
+     * the executor rejected it.
+     */
+    public void onDropped() {
+        queueDepth.decrementAndGet();
+    }
+
+    /**
+     * Records that a queued task was replaced by a newer one and will not run.
+     */
+    public void onCoalesced() {
+        coalescedCount.incrementAndGet();
+    }
+
+    private void onEnqueued() {
+        final int depth = queueDepth.incrementAndGet();
+        int max;
+        while (depth > (max = maxQueueDepth.get())) {
+            if (maxQueueDepth.compareAndSet(max, depth)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns a one line per category summary: task count, p50/p99/max wait and run times.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(name)
+                .append(": queue depth ").append(queueDepth.get())
+                .append(" (max ").append(maxQueueDepth.get()).append(')')
+                .append(", coalesced ").append(coalescedCount.get());
+        for (TaskCategory category : CATEGORIES) {
+            final LatencyHistogram wait = getWaitHistogram(category);
+            final LatencyHistogram run = getRunHistogram(category);
+            if (run.getCount() == 0) {
+                continue;
+            }
+            builder.append(String.format(Locale.US,
+                    "\n  %s x%d wait p50=%.1fms p99=%.1fms max=%.1fms,"
+                            + " run p50=%.1fms p99=%.1fms max=%.1fms",
+                    category, run.getCount(),
+                    millis(wait.getPercentileNanos(50)), millis(wait.getPercentileNanos(99)),
+                    millis(wait.getMaxNanos()),
+                    millis(run.getPercentileNanos(50)), millis(run.getPercentileNanos(99)),
+                    millis(run.getMaxNanos())));
+        }
+        return builder.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * InstrumentedExecutor
+ * <p>
+ * Description: Executor decorator recording every task under one {@link TaskCategory} in
+ * an {@link ExecutorMetrics}.
+ */
+public class InstrumentedExecutor implements Executor {
+    private final Executor delegate;
+    private final TaskCategory category;
+    private final ExecutorMetrics metrics;
+
+    public InstrumentedExecutor(Executor delegate, TaskCategory category, ExecutorMetrics metrics) {
+        this.delegate = delegate;
+        this.category = category;
+        this.metrics = metrics;
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        final Runnable wrapped = metrics.wrap(category, task);
+        try {
+            delegate.execute(wrapped);
+        } catch (RejectedExecutionException e) {
+            metrics.onDropped();
+            throw e;
+        }
+    }
+}
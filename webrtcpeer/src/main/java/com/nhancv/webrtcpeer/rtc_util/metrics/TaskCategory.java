@@ -0,0 +1,43 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+/**
+ * TaskCategory
+ * <p>
+ * Description: Kind of work posted to an instrumented executor, used to break down the
+ * executor metrics.
+ */
+public enum TaskCategory {
+    /**
+     * Offer/answer creation and local/remote description handling.
+     */
+    SDP,
+    /**
+     * Local and remote ICE candidates.
+     */
+    ICE,
+    /**
+     * Statistics polling and reporting.
+     */
+    STATS,
+    /**
+     * Camera, capture format, frame tap and encoder bitrate changes.
+     */
+    CAPTURE,
+    /**
+     * Remote track discovery, routing of remote tracks to sinks, and enabling or
+     * disabling tracks.
+     */
+    TRACKS,
+    /**
+     * Connection teardown.
+     */
+    CLOSE,
+    /**
+     * Signaling channel messages and events.
+     */
+    SIGNALING,
+    /**
+     * Anything else, e.g. factory creation or error reporting.
+     */
+    OTHER
+}
@@ -0,0 +1,38 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CodecCapabilityProbeTest {
+
+	private static CodecCapabilityProbe.Results results() {
+		return new CodecCapabilityProbe.Results("vendor/device:11/RQ1A/1234:user/release-keys", Arrays.asList(
+				new CodecCapabilityProbe.Result("VP8", true, true, 40_000),
+				new CodecCapabilityProbe.Result("H264", true, false, 2_000),
+				new CodecCapabilityProbe.Result("VP9", true, true, 10_000),
+				new CodecCapabilityProbe.Result("VP8", false, true, 30_000),
+				new CodecCapabilityProbe.Result("H264", false, true, 5_000)));
+	}
+
+	@Test
+	public void getFastestCodec_skipsCodecsNotWorkingBothWays() {
+		CodecCapabilityProbe.Results results = results();
+		assertEquals("VP8", results.getFastestCodec());
+		assertTrue(results.isEncoderBroken("H264"));
+		assertFalse(results.isEncoderBroken("VP8"));
+		assertFalse(results.isEncoderBroken("AV1"));
+	}
+
+	@Test
+	public void format_roundTripsThroughParse() {
+		CodecCapabilityProbe.Results results = results();
+		CodecCapabilityProbe.Results parsed = CodecCapabilityProbe.Results.parse(results.format());
+		assertEquals(results.getFingerprint(), parsed.getFingerprint());
+		assertEquals(results.toString(), parsed.toString());
+		assertEquals(10_000, parsed.getEncoder("vp9").startupLatencyUs);
+		assertNull(parsed.getDecoder("VP9"));
+	}
+}
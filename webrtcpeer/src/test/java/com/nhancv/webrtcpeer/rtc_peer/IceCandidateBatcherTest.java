@@ -0,0 +1,52 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.junit.Test;
+import org.webrtc.IceCandidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IceCandidateBatcherTest {
+
+	private static IceCandidate candidate(int index) {
+		return new IceCandidate("0", 0, "candidate:" + index + " 1 udp 2122260223 10.0.0.1 5000" + index + " typ host");
+	}
+
+	@Test
+	public void add_deliversFullBatchesAndFlushesRest() {
+		List<List<IceCandidate>> batches = new ArrayList<>();
+		IceCandidateBatcher batcher = new IceCandidateBatcher(Runnable::run, batches::add);
+		batcher.configure(60000, 3);
+		assertTrue(batcher.isEnabled());
+		for (int i = 0; i < 5; i++) {
+			batcher.add(candidate(i));
+		}
+		assertEquals(1, batches.size());
+		assertEquals(3, batches.get(0).size());
+		batcher.flush();
+		assertEquals(2, batches.size());
+		assertEquals(2, batches.get(1).size());
+		batcher.flush();
+		assertEquals(2, batches.size());
+	}
+
+	@Test
+	public void add_deliversPartialBatchWhenWindowExpires() throws InterruptedException {
+		CountDownLatch delivered = new CountDownLatch(1);
+		List<List<IceCandidate>> batches = new ArrayList<>();
+		IceCandidateBatcher batcher = new IceCandidateBatcher(Runnable::run, candidates -> {
+			batches.add(candidates);
+			delivered.countDown();
+		});
+		batcher.configure(20, 0);
+		batcher.add(candidate(0));
+		batcher.add(candidate(1));
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+	}
+}
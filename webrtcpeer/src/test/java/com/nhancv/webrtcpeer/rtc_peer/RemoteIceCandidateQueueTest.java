@@ -0,0 +1,59 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.junit.Test;
+import org.webrtc.IceCandidate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RemoteIceCandidateQueueTest {
+
+	private static IceCandidate candidate(int index) {
+		return new IceCandidate("0", 0, "candidate:" + index + " 1 udp 2122260223 10.0.0.1 5000" + index + " typ host");
+	}
+
+	@Test
+	public void add_dropsCandidatesSeenOnConnection() {
+		RemoteIceCandidateQueue queue = new RemoteIceCandidateQueue();
+		queue.reset();
+		List<IceCandidate> applied = new ArrayList<>();
+		assertEquals(2, queue.add(Arrays.asList(candidate(0), candidate(1), candidate(0)), applied::add));
+		assertEquals(1, queue.add(Arrays.asList(candidate(1), candidate(2)), applied::add));
+		assertEquals(3, queue.drain(applied::add));
+		assertEquals(0, queue.add(Arrays.asList(candidate(2)), applied::add));
+
+		queue.remove(new IceCandidate[]{candidate(2)});
+		assertEquals(1, queue.add(Arrays.asList(candidate(2)), applied::add));
+		assertEquals(4, applied.size());
+		assertEquals(candidate(0).sdp, applied.get(0).sdp);
+		assertEquals(candidate(1).sdp, applied.get(1).sdp);
+		assertEquals(candidate(2).sdp, applied.get(3).sdp);
+	}
+
+	@Test
+	public void add_recordsOnlyAppliedBatches() {
+		RemoteIceCandidateQueue queue = new RemoteIceCandidateQueue();
+		queue.reset();
+		List<IceCandidate> applied = new ArrayList<>();
+		queue.add(Arrays.asList(candidate(0), candidate(1)), applied::add);
+		queue.add(Arrays.asList(candidate(2)), applied::add);
+		assertTrue(queue.isQueuing());
+		assertTrue(applied.isEmpty());
+		assertEquals(0, queue.getApplyHistogram().getCount());
+
+		queue.drain(applied::add);
+		assertFalse(queue.isQueuing());
+		assertEquals(3, applied.size());
+		assertEquals(1, queue.getApplyHistogram().getCount());
+
+		queue.add(Arrays.asList(candidate(3), candidate(4)), applied::add);
+		assertEquals(5, applied.size());
+		assertEquals(2, queue.getApplyHistogram().getCount());
+		// A batch without new candidates applies nothing and is not recorded.
+		queue.add(Arrays.asList(candidate(3)), applied::add);
+		assertEquals(2, queue.getApplyHistogram().getCount());
+	}
+}
@@ -0,0 +1,51 @@
+package com.nhancv.webrtcpeer.rtc_peer;
+
+import org.junit.Test;
+import org.webrtc.RtpParameters;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimulcastLayerTest {
+	private static final boolean[] ALL_ENABLED = {true, true, true};
+
+	@Test
+	public void splitBitrate_fillsLowestLayersFirstAndDropsTopLayers() {
+		List<SimulcastLayer> layers = SimulcastLayer.defaultLayers();
+		// 150 kbps is left for "h", less than half of its 500 kbps.
+		assertArrayEquals(new int[]{150, 0, 0}, SimulcastLayer.splitBitrate(layers, ALL_ENABLED, 300));
+		assertArrayEquals(new int[]{150, 500, 0}, SimulcastLayer.splitBitrate(layers, ALL_ENABLED, 1000));
+		assertArrayEquals(new int[]{150, 500, 1350}, SimulcastLayer.splitBitrate(layers, ALL_ENABLED, 2000));
+		// The lowest layer is kept even when it does not get its whole limit.
+		assertArrayEquals(new int[]{100, 0, 0}, SimulcastLayer.splitBitrate(layers, ALL_ENABLED, 100));
+	}
+
+	@Test
+	public void splitBitrate_givesDisabledLayersBudgetToOthers() {
+		List<SimulcastLayer> layers = SimulcastLayer.defaultLayers();
+		boolean[] enabled = {false, true, true};
+		assertArrayEquals(new int[]{0, 300, 0}, SimulcastLayer.splitBitrate(layers, enabled, 300));
+		assertArrayEquals(new int[]{0, 500, 1000}, SimulcastLayer.splitBitrate(layers, enabled, 1500));
+	}
+
+	@Test
+	public void applyLimits_lowersLayerLimitToCap() {
+		SimulcastLayer layer = new SimulcastLayer("q", 4, 150, 15);
+		RtpParameters.Encoding encoding = layer.toEncoding();
+		assertEquals(Integer.valueOf(150_000), encoding.maxBitrateBps);
+		assertEquals(Integer.valueOf(15), encoding.maxFramerate);
+
+		layer.applyLimits(encoding, 100);
+		assertEquals(Integer.valueOf(100_000), encoding.maxBitrateBps);
+		layer.applyLimits(encoding, 400);
+		assertEquals(Integer.valueOf(150_000), encoding.maxBitrateBps);
+
+		SimulcastLayer unlimited = new SimulcastLayer("f", 1, 0, 0);
+		unlimited.applyLimits(encoding, null);
+		assertNull(encoding.maxBitrateBps);
+		assertNull(encoding.maxFramerate);
+		unlimited.applyLimits(encoding, 800);
+		assertEquals(Integer.valueOf(800_000), encoding.maxBitrateBps);
+	}
+}
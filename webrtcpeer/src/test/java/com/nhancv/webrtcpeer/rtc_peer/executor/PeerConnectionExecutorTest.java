@@ -0,0 +1,166 @@
+package com.nhancv.webrtcpeer.rtc_peer.executor;
+
+import com.nhancv.webrtcpeer.rtc_util.metrics.TaskCategory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PeerConnectionExecutorTest {
+
+	@Test
+	public void lanesOnOneStripe_keepSubmissionOrder() throws InterruptedException {
+		ExecutionModel model = ExecutionModel.striped(1);
+		PeerConnectionExecutor first = model.newExecutor();
+		PeerConnectionExecutor second = model.newExecutor();
+		final List<Integer> firstRuns = Collections.synchronizedList(new ArrayList<Integer>());
+		final List<Integer> secondRuns = Collections.synchronizedList(new ArrayList<Integer>());
+		final CountDownLatch done = new CountDownLatch(200);
+		for (int i = 0; i < 100; i++) {
+			final int task = i;
+			first.execute(() -> {
+				firstRuns.add(task);
+				done.countDown();
+			});
+			second.execute(() -> {
+				secondRuns.add(task);
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, (int) firstRuns.get(i));
+			assertEquals(i, (int) secondRuns.get(i));
+		}
+		model.shutdown();
+	}
+
+	@Test
+	public void stripedShutdown_stopsNewLanes() {
+		ExecutionModel model = ExecutionModel.striped(2);
+		model.shutdown();
+		try {
+			model.newExecutor();
+			fail("Lane created on a shut down model");
+		} catch (IllegalStateException expected) {
+		}
+	}
+
+	@Test
+	public void shutdown_runsQueuedTasksAndDropsLaterOnes() throws InterruptedException {
+		final PeerConnectionExecutor executor = ExecutionModel.perClient().newExecutor();
+		final CountDownLatch gate = new CountDownLatch(1);
+		final CountDownLatch queued = new CountDownLatch(1);
+		final boolean[] lateTaskRan = new boolean[1];
+		executor.execute(() -> {
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			executor.shutdown();
+		});
+		executor.execute(queued::countDown);
+		gate.countDown();
+		assertTrue(queued.await(5, TimeUnit.SECONDS));
+		executor.execute(() -> lateTaskRan[0] = true);
+		Thread.sleep(50);
+		assertFalse(lateTaskRan[0]);
+	}
+
+	@Test
+	public void executeLatest_replacesPendingTaskInPlace() throws InterruptedException {
+		PeerConnectionExecutor executor = ExecutionModel.perClient().newExecutor();
+		final CountDownLatch gate = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final List<String> runs = Collections.synchronizedList(new ArrayList<String>());
+		executor.execute(() -> {
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		executor.executeLatest(TaskCategory.CAPTURE, "bitrate", () -> runs.add("bitrate 1"));
+		executor.execute(TaskCategory.CAPTURE, () -> runs.add("other"));
+		executor.executeLatest(TaskCategory.CAPTURE, "bitrate", () -> runs.add("bitrate 2"));
+		executor.executeLatest(TaskCategory.CAPTURE, "bitrate", () -> runs.add("bitrate 3"));
+		executor.execute(done::countDown);
+		gate.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("bitrate 3", "other"), runs);
+		assertEquals(2, executor.getMetrics().getCoalescedCount());
+		assertEquals(0, executor.getMetrics().getQueueDepth());
+	}
+
+	@Test
+	public void deferrableTasks_runAfterSignalingWork() throws InterruptedException {
+		PeerConnectionExecutor executor = ExecutionModel.perClient().newExecutor();
+		final CountDownLatch gate = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(5);
+		final List<String> runs = Collections.synchronizedList(new ArrayList<String>());
+		executor.execute(() -> {
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		executor.execute(TaskCategory.STATS, () -> {
+			runs.add("stats");
+			done.countDown();
+		});
+		executor.execute(TaskCategory.CAPTURE, () -> {
+			runs.add("capture");
+			done.countDown();
+		});
+		executor.execute(TaskCategory.SDP, () -> {
+			runs.add("sdp");
+			done.countDown();
+		});
+		executor.execute(TaskCategory.ICE, () -> {
+			runs.add("ice");
+			done.countDown();
+		});
+		executor.execute(TaskCategory.CLOSE, () -> {
+			runs.add("close");
+			done.countDown();
+		});
+		gate.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("sdp", "ice", "close", "stats", "capture"), runs);
+	}
+
+	@Test
+	public void deferrableTask_isNotStarved() throws InterruptedException {
+		PeerConnectionExecutor executor = ExecutionModel.perClient().newExecutor();
+		final CountDownLatch gate = new CountDownLatch(1);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final List<String> runs = Collections.synchronizedList(new ArrayList<String>());
+		executor.execute(() -> {
+			started.countDown();
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		executor.execute(TaskCategory.STATS, () -> runs.add("stats"));
+		for (int i = 0; i < PeerConnectionExecutor.MAX_OVERTAKES + 4; i++) {
+			executor.execute(TaskCategory.ICE, () -> runs.add("ice"));
+		}
+		executor.execute(TaskCategory.ICE, done::countDown);
+		gate.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(PeerConnectionExecutor.MAX_OVERTAKES, runs.indexOf("stats"));
+	}
+}
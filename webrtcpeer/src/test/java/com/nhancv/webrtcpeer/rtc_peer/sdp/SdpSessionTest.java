@@ -0,0 +1,90 @@
+package com.nhancv.webrtcpeer.rtc_peer.sdp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SdpSessionTest {
+	private static final String SDP = "v=0\r\n"
+			+ "o=- 4611731400430051336 2 IN IP4 127.0.0.1\r\n"
+			+ "s=-\r\n"
+			+ "t=0 0\r\n"
+			+ "a=group:BUNDLE 0 1 2\r\n"
+			+ "m=audio 9 UDP/TLS/RTP/SAVPF 111 103 9\r\n"
+			+ "c=IN IP4 0.0.0.0\r\n"
+			+ "a=extmap:1 urn:ietf:params:rtp-hdrext:ssrc-audio-level\r\n"
+			+ "a=rtpmap:111 opus/48000/2\r\n"
+			+ "a=fmtp:111 minptime=10;useinbandfec=1\r\n"
+			+ "a=rtpmap:103 ISAC/16000\r\n"
+			+ "a=rtpmap:9 G722/8000\r\n"
+			+ "m=video 9 UDP/TLS/RTP/SAVPF 96 97 98\r\n"
+			+ "a=extmap:2/sendrecv urn:3gpp:video-orientation\r\n"
+			+ "a=rtpmap:96 VP8/90000\r\n"
+			+ "a=rtpmap:97 rtx/90000\r\n"
+			+ "a=fmtp:97 apt=96\r\n"
+			+ "a=rtpmap:98 H264/90000\r\n"
+			+ "m=video 9 UDP/TLS/RTP/SAVPF 96 98\r\n"
+			+ "a=rtpmap:96 VP8/90000\r\n"
+			+ "a=rtpmap:98 H264/90000\r\n";
+
+	@Test
+	public void parse_findsEveryMediaSectionWithoutParsingIt() {
+		SdpSession session = SdpSession.parse(SDP);
+		assertEquals(3, session.getMediaSections().size());
+		assertEquals(2, session.getMediaSections("video").size());
+		for (SdpMediaSection section : session.getMediaSections()) {
+			assertFalse(section.isParsed());
+		}
+		assertEquals(5, session.getSessionLines().size());
+		assertSame(SDP, session.toString());
+	}
+
+	@Test
+	public void mediaSection_indexesRtpmapFmtpAndExtmap() {
+		SdpMediaSection video = SdpSession.parse(SDP).getMediaSections().get(1);
+		assertEquals(Arrays.asList("96", "97", "98"), video.getFormats());
+		assertEquals(Arrays.asList("98"), video.getPayloadTypes("H264"));
+		assertEquals("rtx", video.getCodec("97"));
+		assertEquals("apt=96", video.getFmtp("97"));
+		assertNull(video.getFmtp("96"));
+		assertEquals(2, video.getExtmapId("urn:3gpp:video-orientation"));
+	}
+
+	@Test
+	public void mediaSection_skipsExtmapWithOverlongId() {
+		SdpMediaSection audio = SdpSession.parse(SDP.replace("a=extmap:1 ",
+				"a=extmap:99999999999 urn:example:bogus\r\na=extmap:1 ")).getMediaSections().get(0);
+		assertEquals(1, audio.getExtmaps().size());
+		assertEquals(1, audio.getExtmapId("urn:ietf:params:rtp-hdrext:ssrc-audio-level"));
+	}
+
+	@Test
+	public void munge_rewritesOnlyTouchedSections() {
+		String munged = SdpMunger.builder()
+				.preferVideoCodec("H264")
+				.startBitrate("opus", false, 32)
+				.build()
+				.munge(SDP);
+		SdpSession session = SdpSession.parse(munged);
+		assertEquals("m=audio 9 UDP/TLS/RTP/SAVPF 111 103 9",
+				session.getMediaSections().get(0).getMediaDescription());
+		assertEquals("minptime=10;useinbandfec=1; maxaveragebitrate=32000",
+				session.getMediaSections().get(0).getFmtp("111"));
+		assertEquals("m=video 9 UDP/TLS/RTP/SAVPF 98 96 97",
+				session.getMediaSections().get(1).getMediaDescription());
+		assertEquals("m=video 9 UDP/TLS/RTP/SAVPF 98 96",
+				session.getMediaSections().get(2).getMediaDescription());
+	}
+
+	@Test
+	public void setFmtp_insertsLineAfterRtpmap() {
+		SdpSession session = SdpSession.parse(SDP);
+		SdpMediaSection video = session.getMediaSections().get(1);
+		video.setFmtp("96", "x-google-start-bitrate=500");
+		assertEquals("a=fmtp:96 x-google-start-bitrate=500", video.getLines().get(3));
+		assertEquals("apt=96", video.getFmtp("97"));
+		assertTrue(session.toString().endsWith(SDP.substring(SDP.lastIndexOf("m=video"))));
+	}
+}
@@ -0,0 +1,84 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.junit.Test;
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RtcStatsParserTest {
+
+	private static RTCStats stats(String type, String id, Object... keyValues) {
+		Map<String, Object> members = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			members.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return new RTCStats(1_000_000L, type, id, members);
+	}
+
+	private static RTCStatsReport report(RTCStats... stats) {
+		Map<String, RTCStats> statsMap = new LinkedHashMap<>();
+		for (RTCStats s : stats) {
+			statsMap.put(s.getId(), s);
+		}
+		return new RTCStatsReport(1_000_000L, statsMap);
+	}
+
+	@Test
+	public void parse_readsTypedFieldsAndJoinsRemoteInbound() {
+		RTCStatsReport report = report(
+				stats("remote-inbound-rtp", "RI1", "ssrc", 1234L, "kind", "video",
+						"packetsLost", 7, "roundTripTime", 0.12, "fractionLost", 0.05),
+				stats("outbound-rtp", "OT1", "ssrc", 1234L, "kind", "video",
+						"bytesSent", BigInteger.valueOf(50_000), "packetsSent", 60L,
+						"framesEncoded", 30L, "frameWidth", 640L, "framesPerSecond", 29.5,
+						"qualityLimitationReason", "bandwidth", "codecId", "C96"),
+				stats("inbound-rtp", "IT1", "ssrc", 99L, "kind", "audio",
+						"packetsLost", -2, "jitter", 0.003),
+				stats("codec", "C96", "payloadType", 96L, "mimeType", "video/VP8"),
+				stats("candidate-pair", "CP1", "state", "succeeded", "nominated", true),
+				stats("candidate-pair", "CP2", "state", "succeeded",
+						"availableOutgoingBitrate", 800_000.0, "currentRoundTripTime", 0.1),
+				stats("transport", "T1", "selectedCandidatePairId", "CP2"),
+				stats("media-source", "MS1"));
+		RtcStatsSnapshot snapshot = new RtcStatsSnapshot();
+		RtcStatsParser.parse(report, snapshot);
+
+		assertEquals(1, snapshot.getOutboundRtpCount());
+		OutboundRtpStats outbound = snapshot.getOutboundRtp(0);
+		assertTrue(outbound.isVideo);
+		assertEquals(50_000, outbound.bytesSent);
+		assertEquals(640, outbound.frameWidth);
+		assertEquals(-1, outbound.frameHeight);
+		assertEquals(OutboundRtpStats.QUALITY_LIMITATION_BANDWIDTH, outbound.qualityLimitationReason);
+		assertEquals(7, outbound.remotePacketsLost);
+		assertEquals(0.12, outbound.remoteRoundTripTime, 0);
+		assertEquals("video/VP8", snapshot.findCodec(outbound.codecId).mimeType);
+
+		assertEquals(1, snapshot.getInboundRtpCount());
+		assertFalse(snapshot.getInboundRtp(0).isVideo);
+		assertEquals(-2, snapshot.getInboundRtp(0).packetsLost);
+
+		assertEquals(2, snapshot.getCandidatePairCount());
+		assertEquals(800_000.0, snapshot.getSelectedCandidatePair().availableOutgoingBitrate, 0);
+	}
+
+	@Test
+	public void parse_reusesStatsObjectsAcrossPolls() {
+		RtcStatsSnapshot snapshot = new RtcStatsSnapshot();
+		RtcStatsParser.parse(report(stats("outbound-rtp", "OT1", "ssrc", 1L, "kind", "audio")), snapshot);
+		OutboundRtpStats first = snapshot.getOutboundRtp(0);
+		RtcStatsParser.parse(report(stats("outbound-rtp", "OT1", "ssrc", 2L, "kind", "audio")), snapshot);
+		assertSame(first, snapshot.getOutboundRtp(0));
+		assertEquals(2, snapshot.getOutboundRtp(0).ssrc);
+		assertEquals(-1, snapshot.getOutboundRtp(0).remoteRoundTripTime, 0);
+		RtcStatsParser.parse(report(), snapshot);
+		assertEquals(0, snapshot.getOutboundRtpCount());
+		assertNull(snapshot.getSelectedCandidatePair());
+	}
+}
@@ -0,0 +1,82 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.junit.Test;
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StatsDeltaEngineTest {
+
+	private static RTCStatsReport poll(long timestampUs, long bytesSent, long packetsSent,
+									   long remoteLost, long framesEncoded, long bytesReceived) {
+		Map<String, Object> outbound = new HashMap<>();
+		outbound.put("ssrc", 1L);
+		outbound.put("kind", "video");
+		outbound.put("bytesSent", bytesSent);
+		outbound.put("packetsSent", packetsSent);
+		outbound.put("framesEncoded", framesEncoded);
+		Map<String, Object> remoteInbound = new HashMap<>();
+		remoteInbound.put("ssrc", 1L);
+		remoteInbound.put("kind", "video");
+		remoteInbound.put("packetsLost", (int) remoteLost);
+		remoteInbound.put("roundTripTime", 0.08);
+		Map<String, Object> inbound = new HashMap<>();
+		inbound.put("ssrc", 2L);
+		inbound.put("kind", "audio");
+		inbound.put("bytesReceived", bytesReceived);
+		Map<String, RTCStats> stats = new LinkedHashMap<>();
+		stats.put("OT", new RTCStats(timestampUs, "outbound-rtp", "OT", outbound));
+		stats.put("RI", new RTCStats(timestampUs, "remote-inbound-rtp", "RI", remoteInbound));
+		stats.put("IT", new RTCStats(timestampUs, "inbound-rtp", "IT", inbound));
+		return new RTCStatsReport(timestampUs, stats);
+	}
+
+	@Test
+	public void onRtcStats_emitsRatesFromSecondPollOn() {
+		StatsDeltaEngine engine = new StatsDeltaEngine();
+		final StatsDelta[] received = new StatsDelta[1];
+		final int[] calls = new int[1];
+		engine.addListener(delta -> {
+			received[0] = delta;
+			calls[0]++;
+		});
+		RtcStatsSnapshot snapshot = new RtcStatsSnapshot();
+		RtcStatsParser.parse(poll(1_000_000, 10_000, 100, 0, 30, 4_000), snapshot);
+		engine.onRtcStats(snapshot);
+		assertEquals(0, calls[0]);
+
+		RtcStatsParser.parse(poll(1_500_000, 72_500, 300, 10, 45, 6_000), snapshot);
+		engine.onRtcStats(snapshot);
+		assertEquals(1, calls[0]);
+		StatsDelta delta = received[0];
+		assertEquals(500_000, delta.intervalUs);
+		assertEquals(1000, delta.videoSendKbps, 1e-9);
+		assertEquals(32, delta.audioReceiveKbps, 1e-9);
+		assertEquals(30, delta.videoSendFps, 1e-9);
+		assertEquals(5, delta.videoSendLossPercent, 1e-9);
+		assertEquals(80, delta.rttMs, 1e-9);
+		assertEquals(-1, delta.availableOutgoingKbps, 0);
+		assertEquals(2, delta.streamCount);
+		assertTrue(delta.outbound[0]);
+		assertEquals(1000, delta.kbps[0], 1e-9);
+	}
+
+	@Test
+	public void reset_dropsPreviousSample() {
+		StatsDeltaEngine engine = new StatsDeltaEngine();
+		final int[] calls = new int[1];
+		engine.addListener(delta -> calls[0]++);
+		RtcStatsSnapshot snapshot = new RtcStatsSnapshot();
+		RtcStatsParser.parse(poll(1_000_000, 0, 0, 0, 0, 0), snapshot);
+		engine.onRtcStats(snapshot);
+		engine.reset();
+		RtcStatsParser.parse(poll(2_000_000, 1_000, 10, 0, 10, 100), snapshot);
+		engine.onRtcStats(snapshot);
+		assertEquals(0, calls[0]);
+	}
+}
@@ -0,0 +1,64 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class StatsHistoryRecorderTest {
+
+	private static StatsDelta delta(long timestampUs, double videoSendKbps) {
+		StatsDelta delta = new StatsDelta();
+		delta.timestampUs = timestampUs;
+		delta.intervalUs = 1_000_000;
+		delta.videoSendKbps = videoSendKbps;
+		return delta;
+	}
+
+	@Test
+	public void onStatsDelta_overwritesOldestRowWhenFull() {
+		StatsHistoryRecorder recorder = new StatsHistoryRecorder(3);
+		for (int i = 1; i <= 5; i++) {
+			recorder.onStatsDelta(delta(i, i * 100));
+		}
+		assertEquals(3, recorder.size());
+		assertEquals(3, recorder.getTimestampUs(0));
+		assertEquals(5, recorder.getTimestampUs(2));
+		assertEquals(500f, recorder.getFloat(3, 2), 0);
+		assertEquals(1000f, recorder.getFloat(1, 0), 0);
+	}
+
+	@Test
+	public void writeTo_exportsColumnsOldestFirst() throws IOException {
+		StatsHistoryRecorder recorder = new StatsHistoryRecorder(2);
+		recorder.onStatsDelta(delta(10, 1));
+		recorder.onStatsDelta(delta(20, 2));
+		recorder.onStatsDelta(delta(30, 3));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		recorder.writeTo(output);
+
+		ByteBuffer in = ByteBuffer.wrap(output.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(StatsHistoryRecorder.MAGIC, in.getInt());
+		assertEquals(StatsHistoryRecorder.VERSION, in.getShort());
+		int columns = in.getShort();
+		assertEquals(StatsHistoryRecorder.getColumnCount(), columns);
+		int rows = in.getInt();
+		assertEquals(2, rows);
+		for (int i = 0; i < columns; i++) {
+			in.get();
+			int nameLength = in.get();
+			in.position(in.position() + nameLength);
+		}
+		assertEquals(20, in.getLong());
+		assertEquals(30, in.getLong());
+		// intervalMs, audioSendKbps, then videoSendKbps.
+		in.position(in.position() + 2 * rows * 4);
+		assertEquals(2f, in.getFloat(), 0);
+		assertEquals(3f, in.getFloat(), 0);
+		assertEquals(in.capacity() - (columns - 4) * rows * 4, in.position());
+	}
+}
@@ -0,0 +1,59 @@
+package com.nhancv.webrtcpeer.rtc_peer.stats;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StatsSchedulerTest {
+
+	@Test
+	public void adaptive_backsOffWhenStableAndSpeedsUpOnDegradation() {
+		StatsScheduler scheduler = new StatsScheduler(() -> { });
+		scheduler.startAdaptive(250, 1000);
+		StatsDelta stable = new StatsDelta();
+		stable.rttMs = 50;
+		for (int i = 0; i < StatsScheduler.STABLE_POLLS_BEFORE_BACKOFF; i++) {
+			scheduler.onStatsDelta(stable);
+		}
+		assertEquals(500, scheduler.getPeriodMs());
+		for (int i = 0; i < 3 * StatsScheduler.STABLE_POLLS_BEFORE_BACKOFF; i++) {
+			scheduler.onStatsDelta(stable);
+		}
+		assertEquals(1000, scheduler.getPeriodMs());
+
+		StatsDelta lossy = new StatsDelta();
+		lossy.rttMs = 50;
+		lossy.videoReceiveLossPercent = 8;
+		scheduler.onStatsDelta(lossy);
+		assertEquals(250, scheduler.getPeriodMs());
+
+		StatsDelta slowRtt = new StatsDelta();
+		slowRtt.rttMs = 400;
+		scheduler.onStatsDelta(stable);
+		scheduler.onStatsDelta(slowRtt);
+		assertEquals(250, scheduler.getPeriodMs());
+		scheduler.stop();
+	}
+
+	@Test
+	public void stop_canBeRestarted() throws InterruptedException {
+		final CountDownLatch[] polls = {new CountDownLatch(2)};
+		StatsScheduler scheduler = new StatsScheduler(() -> polls[0].countDown());
+		scheduler.start(10);
+		assertTrue(polls[0].await(5, TimeUnit.SECONDS));
+		scheduler.stop();
+		assertFalse(scheduler.isRunning());
+
+		polls[0] = new CountDownLatch(2);
+		scheduler.start(10);
+		assertTrue(polls[0].await(5, TimeUnit.SECONDS));
+		scheduler.pause();
+		assertFalse(scheduler.isRunning());
+		scheduler.resume();
+		assertTrue(scheduler.isRunning());
+		scheduler.stop();
+	}
+}
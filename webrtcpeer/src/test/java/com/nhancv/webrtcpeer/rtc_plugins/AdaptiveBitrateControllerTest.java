@@ -0,0 +1,72 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import com.nhancv.webrtcpeer.rtc_peer.stats.StatsDelta;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveBitrateControllerTest {
+	private final List<Integer> bitrates = new ArrayList<>();
+	private final List<String> formats = new ArrayList<>();
+	private final AdaptiveBitrateController controller = new AdaptiveBitrateController(
+			new AdaptiveBitrateController.Actuator() {
+				@Override
+				public void setVideoMaxBitrate(int maxBitrateKbps) {
+					bitrates.add(maxBitrateKbps);
+				}
+
+				@Override
+				public void changeCaptureFormat(int width, int height, int framerate) {
+					formats.add(width + "x" + height);
+				}
+			}, 150, 2500);
+
+	private static StatsDelta delta(double lossPercent, double rttMs, double availableKbps) {
+		StatsDelta delta = new StatsDelta();
+		delta.videoSendLossPercent = lossPercent;
+		delta.rttMs = rttMs;
+		delta.availableOutgoingKbps = availableKbps;
+		return delta;
+	}
+
+	@Test
+	public void loss_stepsDownBitrateAndThenFormat() {
+		controller.onStatsDelta(delta(0, 50, -1));
+		assertEquals(1, bitrates.size());
+		assertEquals(2500, (int) bitrates.get(0));
+		assertEquals(1, formats.size());
+
+		for (int i = 0; i < 10; i++) {
+			controller.onStatsDelta(delta(20, 50, -1));
+		}
+		assertTrue(controller.getTargetKbps() < 600);
+		assertTrue(bitrates.size() > 1);
+		assertTrue(formats.size() > 1);
+		assertNotEquals(formats.get(0), formats.get(formats.size() - 1));
+	}
+
+	@Test
+	public void availableBitrate_capsTargetAndSmallChangesAreNotApplied() {
+		controller.onStatsDelta(delta(0, 50, 1000));
+		assertEquals(900, controller.getTargetKbps());
+		controller.onStatsDelta(delta(0, 50, 980));
+		assertEquals(1, bitrates.size());
+	}
+
+	@Test
+	public void formatDowngrade_waitsForHoldIntervals() {
+		controller.onStatsDelta(delta(0, 50, -1));
+		assertEquals("1280x720", formats.get(0));
+		for (int i = 1; i < AdaptiveBitrateController.FORMAT_DOWNGRADE_HOLD_INTERVALS; i++) {
+			controller.onStatsDelta(delta(0, 50, 300));
+		}
+		assertEquals(1, formats.size());
+		controller.onStatsDelta(delta(0, 50, 300));
+		assertEquals(2, formats.size());
+		assertEquals("480x360", formats.get(1));
+	}
+}
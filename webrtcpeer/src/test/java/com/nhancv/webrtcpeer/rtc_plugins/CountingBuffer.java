@@ -0,0 +1,53 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.webrtc.VideoFrame;
+
+/**
+ * Fake non-texture frame buffer that counts references. Scaling returns a new buffer of
+ * the scaled size; it has no pixels, so toI420 is not supported.
+ */
+class CountingBuffer implements VideoFrame.Buffer {
+	private final int width;
+	private final int height;
+	volatile int refCount = 1;
+
+	CountingBuffer() {
+		this(2, 2);
+	}
+
+	CountingBuffer(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public VideoFrame.I420Buffer toI420() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public VideoFrame.Buffer cropAndScale(int cropX, int cropY, int cropWidth, int cropHeight, int scaleWidth,
+			int scaleHeight) {
+		return new CountingBuffer(scaleWidth, scaleHeight);
+	}
+
+	@Override
+	public synchronized void retain() {
+		refCount++;
+	}
+
+	@Override
+	public synchronized void release() {
+		refCount--;
+	}
+}
@@ -0,0 +1,100 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.junit.Test;
+import org.webrtc.JavaI420Buffer;
+import org.webrtc.VideoFrame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class FrameTapTest {
+
+	@Test
+	public void onFrame_dropsOldestWhileConsumerIsBusy() throws InterruptedException {
+		CountDownLatch consumerStarted = new CountDownLatch(1);
+		CountDownLatch consumerGate = new CountDownLatch(1);
+		FrameTap tap = new FrameTap("test", 2, frame -> {
+			consumerStarted.countDown();
+			try {
+				consumerGate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		CountingBuffer first = new CountingBuffer();
+		tap.onFrame(new VideoFrame(first, 0, 0));
+		assertTrue(consumerStarted.await(5, TimeUnit.SECONDS));
+
+		CountingBuffer[] buffers = new CountingBuffer[4];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = new CountingBuffer();
+			tap.onFrame(new VideoFrame(buffers[i], 0, i + 1));
+		}
+		assertEquals(2, tap.getDroppedFrames());
+		assertEquals(1, buffers[0].refCount);
+		assertEquals(1, buffers[1].refCount);
+		assertEquals(2, buffers[3].refCount);
+
+		consumerGate.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (tap.getProcessedFrames() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		tap.release();
+		assertEquals(3, tap.getProcessedFrames());
+		assertEquals(1, first.refCount);
+		assertEquals(1, buffers[2].refCount);
+		assertEquals(1, buffers[3].refCount);
+	}
+
+	@Test
+	public void onFrame_withPoolHoldsNoSourceBuffer() throws InterruptedException {
+		CountDownLatch consumerGate = new CountDownLatch(1);
+		CountDownLatch consumed = new CountDownLatch(1);
+		List<VideoFrame.Buffer> seen = new ArrayList<>();
+		FrameTap tap = new FrameTap("test", 2, new I420BufferPool(2), frame -> {
+			try {
+				consumerGate.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			seen.add(frame.getBuffer());
+			consumed.countDown();
+		});
+		AtomicBoolean sourceFreed = new AtomicBoolean();
+		VideoFrame.I420Buffer source = JavaI420Buffer.wrap(2, 2, ByteBuffer.allocateDirect(4), 2,
+				ByteBuffer.allocateDirect(1), 1, ByteBuffer.allocateDirect(1), 1, () -> sourceFreed.set(true));
+		tap.onFrame(new VideoFrame(source, 0, 0));
+		// The source goes back to its owner while the frame is still waiting.
+		source.release();
+		assertTrue(sourceFreed.get());
+
+		consumerGate.countDown();
+		assertTrue(consumed.await(5, TimeUnit.SECONDS));
+		tap.release();
+		assertNotSame(source, seen.get(0));
+	}
+
+	@Test
+	public void onFrame_dropsFrameThatCanNotBeConverted() {
+		I420BufferPool pool = new I420BufferPool(2);
+		FrameTap tap = new FrameTap("test", 2, pool, frame -> fail("Unconvertible frame consumed"));
+		CountingBuffer buffer = new CountingBuffer() {
+			@Override
+			public VideoFrame.I420Buffer toI420() {
+				return null;
+			}
+		};
+		tap.onFrame(new VideoFrame(buffer, 0, 0));
+		tap.release();
+		assertEquals(1, tap.getDroppedFrames());
+		assertEquals(0, pool.getAllocatedBuffers());
+		assertEquals(1, buffer.refCount);
+	}
+}
@@ -0,0 +1,66 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.junit.Test;
+import org.webrtc.JavaI420Buffer;
+import org.webrtc.VideoFrame;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class I420BufferPoolTest {
+
+	@Test
+	public void copy_packsPlanesOfPaddedSource() {
+		// 4x2 frame with a Y stride of 6 and chroma strides of 4.
+		ByteBuffer dataY = direct(0, 1, 2, 3, -1, -1, 4, 5, 6, 7);
+		ByteBuffer dataU = direct(8, 9);
+		ByteBuffer dataV = direct(10, 11, -1, -1);
+		VideoFrame.I420Buffer source = JavaI420Buffer.wrap(4, 2, dataY, 6, dataU, 4, dataV, 4, null);
+
+		VideoFrame.I420Buffer copy = new I420BufferPool(1).copy(source);
+		assertEquals(4, copy.getStrideY());
+		assertEquals(2, copy.getStrideU());
+		assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}, bytes(copy.getDataY(), 8));
+		assertArrayEquals(new byte[]{8, 9}, bytes(copy.getDataU(), 2));
+		assertArrayEquals(new byte[]{10, 11}, bytes(copy.getDataV(), 2));
+		copy.release();
+	}
+
+	@Test
+	public void copy_reusesReleasedBuffersOfSameSize() {
+		I420BufferPool pool = new I420BufferPool(1);
+		VideoFrame.I420Buffer source = JavaI420Buffer.allocate(4, 4);
+
+		pool.copy(source).release();
+		VideoFrame.I420Buffer second = pool.copy(source);
+		assertEquals(1, pool.getAllocatedBuffers());
+		assertEquals(1, pool.getReusedBuffers());
+
+		// The only free buffer is in use, so a concurrent copy allocates.
+		VideoFrame.I420Buffer third = pool.copy(source);
+		assertEquals(2, pool.getAllocatedBuffers());
+		second.release();
+		third.release();
+
+		pool.copy(JavaI420Buffer.allocate(2, 2)).release();
+		pool.copy(source).release();
+		assertEquals(4, pool.getAllocatedBuffers());
+		assertEquals(1, pool.getReusedBuffers());
+	}
+
+	private static ByteBuffer direct(int... values) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(values.length);
+		for (int value : values) {
+			buffer.put((byte) value);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static byte[] bytes(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+}
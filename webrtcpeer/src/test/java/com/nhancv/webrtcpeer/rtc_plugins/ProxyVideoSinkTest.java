@@ -0,0 +1,46 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.junit.Test;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProxyVideoSinkTest {
+
+	@Test
+	public void onFrame_countsFramesWithoutTarget() {
+		ProxyVideoSink proxy = new ProxyVideoSink();
+		proxy.onFrame(new VideoFrame(new CountingBuffer(), 0, 0));
+		proxy.onFrame(new VideoFrame(new CountingBuffer(), 0, 1));
+		assertEquals(2, proxy.getDroppedFrames());
+		assertEquals(0, proxy.getDeliveredFrames());
+	}
+
+	@Test
+	public void onFrame_fansOutWhileFrameIsRetained() {
+		ProxyVideoSink proxy = new ProxyVideoSink();
+		CountingBuffer buffer = new CountingBuffer();
+		List<Integer> refCountsSeen = new ArrayList<>();
+		VideoSink target = frame -> refCountsSeen.add(buffer.refCount);
+		proxy.addTarget(target);
+		proxy.addTarget(target);
+		proxy.addTarget(frame -> refCountsSeen.add(buffer.refCount));
+		assertEquals(2, proxy.getTargetCount());
+
+		proxy.onFrame(new VideoFrame(buffer, 0, 0));
+		assertEquals(2, refCountsSeen.size());
+		assertEquals(2, (int) refCountsSeen.get(0));
+		assertEquals(1, buffer.refCount);
+		assertEquals(1, proxy.getDeliveredFrames());
+
+		proxy.removeTarget(target);
+		proxy.setTarget(null);
+		proxy.onFrame(new VideoFrame(buffer, 0, 0));
+		assertEquals(2, refCountsSeen.size());
+		assertEquals(1, proxy.getDroppedFrames());
+	}
+}
@@ -0,0 +1,43 @@
+package com.nhancv.webrtcpeer.rtc_plugins;
+
+import org.junit.Test;
+import org.webrtc.VideoFrame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ThrottlingVideoSinkTest {
+	private static final long FRAME_INTERVAL_30FPS_NS = 33_333_333L;
+
+	@Test
+	public void onFrame_passesAtMostMaxFps() {
+		List<VideoFrame> delivered = new ArrayList<>();
+		ThrottlingVideoSink sink = new ThrottlingVideoSink(delivered::add, 10);
+		for (int i = 0; i < 30; i++) {
+			sink.onFrame(new VideoFrame(new CountingBuffer(1280, 720), 0, i * FRAME_INTERVAL_30FPS_NS));
+		}
+		assertEquals(10, delivered.size());
+		assertEquals(20, sink.getDroppedFrames());
+	}
+
+	@Test
+	public void onFrame_scalesDownToMaxSizeKeepingAspectRatio() {
+		List<VideoFrame> delivered = new ArrayList<>();
+		ThrottlingVideoSink sink = new ThrottlingVideoSink(delivered::add, 0);
+		sink.setMaxSize(160, 160);
+		CountingBuffer buffer = new CountingBuffer(1280, 720);
+		sink.onFrame(new VideoFrame(buffer, 90, 0));
+		assertEquals(1, delivered.size());
+		VideoFrame.Buffer scaled = delivered.get(0).getBuffer();
+		assertEquals(160, scaled.getWidth());
+		assertEquals(90, scaled.getHeight());
+		assertEquals(0, ((CountingBuffer) scaled).refCount);
+		assertEquals(1, buffer.refCount);
+
+		sink.setMaxSize(0, 0);
+		sink.onFrame(new VideoFrame(buffer, 0, 1));
+		assertSame(buffer, delivered.get(1).getBuffer());
+	}
+}
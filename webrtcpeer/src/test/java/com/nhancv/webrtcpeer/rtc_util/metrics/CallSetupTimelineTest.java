@@ -0,0 +1,32 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+import org.junit.Test;
+
+import static com.nhancv.webrtcpeer.rtc_util.metrics.CallSetupTimeline.Phase.*;
+import static org.junit.Assert.*;
+
+public class CallSetupTimelineTest {
+
+	@Test
+	public void mark_keepsFirstTimestampOfEachPhase() {
+		CallSetupTimeline timeline = new CallSetupTimeline(1_000_000L);
+		assertTrue(timeline.mark(FIRST_LOCAL_CANDIDATE, 5_000_000L));
+		assertFalse(timeline.mark(FIRST_LOCAL_CANDIDATE, 9_000_000L));
+		assertEquals(4_000_000L, timeline.getElapsedNanos(FIRST_LOCAL_CANDIDATE));
+		assertEquals(4, timeline.getElapsedMillis(FIRST_LOCAL_CANDIDATE));
+		assertFalse(timeline.isReached(ICE_CONNECTED));
+		assertEquals(-1, timeline.getElapsedNanos(ICE_CONNECTED));
+	}
+
+	@Test
+	public void getIntervalNanos_needsBothPhases() {
+		CallSetupTimeline timeline = new CallSetupTimeline(0);
+		timeline.mark(ICE_CONNECTED, 300_000_000L);
+		assertEquals(-1, timeline.getIntervalNanos(ICE_CONNECTED, DTLS_CONNECTED));
+		assertFalse(timeline.isComplete());
+		timeline.mark(DTLS_CONNECTED, 450_000_000L);
+		assertEquals(150_000_000L, timeline.getIntervalNanos(ICE_CONNECTED, DTLS_CONNECTED));
+		assertTrue(timeline.isComplete());
+		assertEquals("CallSetupTimeline{ICE_CONNECTED=300.0ms, DTLS_CONNECTED=450.0ms}", timeline.toString());
+	}
+}
@@ -0,0 +1,46 @@
+package com.nhancv.webrtcpeer.rtc_util.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void record_bucketsByPowerOfTwoMicros() {
+		assertEquals(0, LatencyHistogram.bucketOf(999));
+		assertEquals(1, LatencyHistogram.bucketOf(1_000));
+		assertEquals(2, LatencyHistogram.bucketOf(3_999));
+		assertEquals(11, LatencyHistogram.bucketOf(1_500_000));
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void percentile_returnsBucketUpperBoundCappedByMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(1_500);
+		}
+		histogram.record(3_000_000);
+		assertEquals(100, histogram.getCount());
+		assertEquals(2_000, histogram.getPercentileNanos(50));
+		assertEquals(2_000, histogram.getPercentileNanos(99));
+		assertEquals(3_000_000, histogram.getPercentileNanos(100));
+		assertEquals(3_000_000, histogram.getMaxNanos());
+	}
+
+	@Test
+	public void executorMetrics_tracksQueueDepthAndCategories() {
+		ExecutorMetrics metrics = new ExecutorMetrics("test");
+		Runnable first = metrics.wrap(TaskCategory.ICE, () -> { });
+		Runnable second = metrics.wrap(TaskCategory.STATS, () -> { });
+		assertEquals(2, metrics.getQueueDepth());
+		first.run();
+		second.run();
+		assertEquals(0, metrics.getQueueDepth());
+		assertEquals(2, metrics.getMaxQueueDepth());
+		assertEquals(1, metrics.getRunHistogram(TaskCategory.ICE).getCount());
+		assertEquals(1, metrics.getWaitHistogram(TaskCategory.STATS).getCount());
+		assertEquals(0, metrics.getRunHistogram(TaskCategory.SDP).getCount());
+	}
+}